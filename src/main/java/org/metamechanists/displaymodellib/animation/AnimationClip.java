@@ -0,0 +1,296 @@
+package org.metamechanists.displaymodellib.animation;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import lombok.Getter;
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.metamechanists.displaymodellib.models.ModelBuilder;
+import org.metamechanists.displaymodellib.models.ModelInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+
+/**
+ * An animation of a whole model, baked into a primitive array of the translation, rotation and scale of every component on every frame
+ * Baking does all the matrix maths once, so playing the clip is only array reads, and skips components which do not move between frames
+ * Clips are immutable, so one clip can be shared by any number of models through a {@link Cursor} each
+ * Baked clips can optionally be quantized to shorts, which halves their size at a precision of 1/65535 of each value's range
+ * Quantizing each channel separately leaves the rotations slightly off unit length, which scales the display by less than 0.01%, so playback does not normalize them
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class AnimationClip {
+    /**
+     * Translation (3), rotation quaternion (4) and scale (3)
+     */
+    private static final int CHANNELS = 10;
+    private static final int QUANTIZATION_LEVELS = 0xFFFF;
+    private final String[] names;
+    @Getter
+    private final int frameCount;
+    @Getter
+    private final int componentCount;
+    private final float[] frames;
+    private final short[] quantizedFrames;
+    private final float[] channelMins;
+    private final float[] channelSteps;
+    /**
+     * Whether each component on each frame differs from the previous frame (the first frame is compared to the last)
+     */
+    private final boolean[] changed;
+
+    private AnimationClip(@NotNull final String[] names, final int frameCount, final float[] frames, final short[] quantizedFrames,
+                          final float[] channelMins, final float[] channelSteps) {
+        this.names = names;
+        this.frameCount = frameCount;
+        this.componentCount = names.length;
+        this.frames = frames;
+        this.quantizedFrames = quantizedFrames;
+        this.channelMins = channelMins;
+        this.channelSteps = channelSteps;
+        this.changed = new boolean[frameCount * names.length];
+        for (int frame = 0; frame < frameCount; frame++) {
+            final int previous = frame == 0 ? frameCount - 1 : frame - 1;
+            for (int component = 0; component < names.length; component++) {
+                for (int channel = 0; channel < CHANNELS; channel++) {
+                    if (get(frame, component, channel) != get(previous, component, channel)) {
+                        changed[frame * names.length + component] = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Bakes the animation without quantizing it
+     * @see #bake(int, IntFunction, boolean)
+     */
+    public static @NotNull AnimationClip bake(final int frameCount, @NotNull final IntFunction<ModelBuilder> pose) {
+        return bake(frameCount, pose, false);
+    }
+    /**
+     * Samples the model on every frame, and stores the transformation of each of its components
+     * Every frame must have the same components, and no component may be sheared (eg by a non-uniform scale after a rotation)
+     * @param frameCount The number of frames, usually one per tick
+     * @param pose Returns the model posed as it should be on the given frame, from 0 to frameCount - 1
+     * @param quantize Whether to store each value as a short instead of a float
+     */
+    public static @NotNull AnimationClip bake(final int frameCount, @NotNull final IntFunction<ModelBuilder> pose, final boolean quantize) {
+        if (frameCount < 1) {
+            throw new IllegalArgumentException("Must have at least one frame");
+        }
+
+        final List<String> names = new ArrayList<>();
+        final List<float[]> frameData = new ArrayList<>(frameCount);
+        for (int frame = 0; frame < frameCount; frame++) {
+            final List<String> frameNames = new ArrayList<>();
+            final List<Pose> poses = new ArrayList<>();
+            pose.apply(frame).forEachComponent((name, component, matrix) -> {
+                frameNames.add(name);
+                poses.add(Pose.decompose(matrix, KeyframeTimeline.DEFAULT_TOLERANCE));
+            });
+            if (frame == 0) {
+                names.addAll(frameNames);
+            } else if (!names.equals(frameNames)) {
+                throw new IllegalArgumentException("Every frame must have the same components");
+            }
+
+            final float[] data = new float[poses.size() * CHANNELS];
+            for (int i = 0; i < poses.size(); i++) {
+                final Pose componentPose = poses.get(i);
+                final int offset = i * CHANNELS;
+                data[offset] = componentPose.translation.x;
+                data[offset + 1] = componentPose.translation.y;
+                data[offset + 2] = componentPose.translation.z;
+                data[offset + 3] = componentPose.rotation.x;
+                data[offset + 4] = componentPose.rotation.y;
+                data[offset + 5] = componentPose.rotation.z;
+                data[offset + 6] = componentPose.rotation.w;
+                data[offset + 7] = componentPose.scale.x;
+                data[offset + 8] = componentPose.scale.y;
+                data[offset + 9] = componentPose.scale.z;
+                if (frame > 0) {
+                    // q and -q are the same rotation, so keep the sign consistent between frames to avoid false changes and wide quantization ranges
+                    final float[] previous = frameData.get(frame - 1);
+                    final float dot = previous[offset + 3]*data[offset + 3] + previous[offset + 4]*data[offset + 4]
+                            + previous[offset + 5]*data[offset + 5] + previous[offset + 6]*data[offset + 6];
+                    if (dot < 0) {
+                        for (int channel = 3; channel < 7; channel++) {
+                            data[offset + channel] = -data[offset + channel];
+                        }
+                    }
+                }
+            }
+            frameData.add(data);
+        }
+
+        final int stride = names.size() * CHANNELS;
+        final float[] frames = new float[frameCount * stride];
+        for (int frame = 0; frame < frameCount; frame++) {
+            System.arraycopy(frameData.get(frame), 0, frames, frame * stride, stride);
+        }
+        if (!quantize) {
+            return new AnimationClip(names.toArray(new String[0]), frameCount, frames, null, null, null);
+        }
+
+        // Each channel of each component gets its own range, so that a small movement keeps its precision
+        final float[] mins = new float[stride];
+        final float[] steps = new float[stride];
+        for (int channel = 0; channel < stride; channel++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int frame = 0; frame < frameCount; frame++) {
+                min = Math.min(min, frames[frame * stride + channel]);
+                max = Math.max(max, frames[frame * stride + channel]);
+            }
+            mins[channel] = min;
+            steps[channel] = (max - min) / QUANTIZATION_LEVELS;
+        }
+        final short[] quantized = new short[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            final int channel = i % stride;
+            quantized[i] = steps[channel] == 0 ? 0 : (short) Math.round((frames[i] - mins[channel]) / steps[channel]);
+        }
+        return new AnimationClip(names.toArray(new String[0]), frameCount, null, quantized, mins, steps);
+    }
+
+    private float get(final int frame, final int component, final int channel) {
+        final int index = (frame * names.length + component) * CHANNELS + channel;
+        if (frames != null) {
+            return frames[index];
+        }
+        return dequantize(index, component * CHANNELS + channel);
+    }
+
+    public @NotNull String getName(final int component) {
+        return names[component];
+    }
+    public boolean isQuantized() {
+        return quantizedFrames != null;
+    }
+    /**
+     * @return The size of the baked frames in bytes
+     */
+    public int getSizeBytes() {
+        return frames != null ? frames.length * Float.BYTES : quantizedFrames.length * Short.BYTES;
+    }
+
+    /**
+     * Sets the vectors to the component's translation, rotation and scale on the given frame, without allocating
+     */
+    private void read(final int frame, final int component, @NotNull final Vector3f translation, @NotNull final Quaternionf rotation, @NotNull final Vector3f scale) {
+        final int index = (frame * names.length + component) * CHANNELS;
+        if (frames != null) {
+            translation.set(frames[index], frames[index + 1], frames[index + 2]);
+            rotation.set(frames[index + 3], frames[index + 4], frames[index + 5], frames[index + 6]);
+            scale.set(frames[index + 7], frames[index + 8], frames[index + 9]);
+            return;
+        }
+        final int channelIndex = component * CHANNELS;
+        translation.set(dequantize(index, channelIndex), dequantize(index + 1, channelIndex + 1), dequantize(index + 2, channelIndex + 2));
+        rotation.set(dequantize(index + 3, channelIndex + 3), dequantize(index + 4, channelIndex + 4),
+                dequantize(index + 5, channelIndex + 5), dequantize(index + 6, channelIndex + 6));
+        scale.set(dequantize(index + 7, channelIndex + 7), dequantize(index + 8, channelIndex + 8), dequantize(index + 9, channelIndex + 9));
+    }
+    private float dequantize(final int index, final int channelIndex) {
+        return channelMins[channelIndex] + (quantizedFrames[index] & 0xFFFF) * channelSteps[channelIndex];
+    }
+
+    /**
+     * Allocates a new transformation on each call, so is only for convenience; a {@link Cursor} plays the clip without allocating
+     * @return The component's transformation on the given frame. If the clip is quantized, the rotation is normalized, so it may differ from the baked rotation by up to the quantization precision
+     */
+    public @NotNull Transformation getTransformation(final int frame, final int component) {
+        final Vector3f translation = new Vector3f();
+        final Quaternionf rotation = new Quaternionf();
+        final Vector3f scale = new Vector3f();
+        read(frame, component, translation, rotation, scale);
+        if (isQuantized()) {
+            rotation.normalize();
+        }
+        return new Transformation(translation, rotation, scale, new Quaternionf());
+    }
+
+    /**
+     * @return A cursor which plays the clip on the displays in the group with the same names as the clip's components
+     */
+    public @NotNull Cursor cursor(@NotNull final DisplayGroup group) {
+        final Map<String, Display> groupDisplays = group.getDisplays();
+        final Display[] displays = new Display[names.length];
+        for (int i = 0; i < names.length; i++) {
+            displays[i] = groupDisplays.get(names[i]);
+        }
+        return new Cursor(this, displays);
+    }
+    /**
+     * @return A cursor which plays the clip on the instance's displays with the same names as the clip's components
+     */
+    public @NotNull Cursor cursor(@NotNull final ModelInstance instance) {
+        final Display[] displays = new Display[names.length];
+        for (int i = 0; i < names.length; i++) {
+            displays[i] = instance.getDisplay(names[i]);
+        }
+        return new Cursor(this, displays);
+    }
+
+    /**
+     * The position of a single model in a clip
+     * Components which the model does not have a display for are skipped
+     */
+    public static final class Cursor {
+        private final AnimationClip clip;
+        private final Display[] displays;
+        // Bukkit copies the transformation into the entity when it is set, so one transformation is refilled for every display
+        private final Vector3f translation = new Vector3f();
+        private final Quaternionf rotation = new Quaternionf();
+        private final Vector3f scale = new Vector3f();
+        private final Transformation transformation = new Transformation(translation, rotation, scale, new Quaternionf());
+        @Getter
+        private int frame;
+        private int lastAppliedFrame = -1;
+
+        Cursor(@NotNull final AnimationClip clip, @NotNull final Display[] displays) {
+            this.clip = clip;
+            this.displays = displays;
+        }
+
+        /**
+         * Moves to the given frame without applying it. Useful to offset identical models so that they do not move in sync
+         */
+        public void seek(final int frame) {
+            this.frame = Math.floorMod(frame, clip.frameCount);
+        }
+
+        /**
+         * Applies the current frame to the displays. If the previous frame was the last one applied, only the components which changed are set
+         * Does not allocate
+         */
+        public void apply() {
+            final int previous = frame == 0 ? clip.frameCount - 1 : frame - 1;
+            final boolean onlyChanged = lastAppliedFrame == previous;
+            final int changedOffset = frame * clip.names.length;
+            for (int component = 0; component < displays.length; component++) {
+                final Display display = displays[component];
+                if (display == null || (onlyChanged && !clip.changed[changedOffset + component])) {
+                    continue;
+                }
+                clip.read(frame, component, translation, rotation, scale);
+                display.setTransformation(transformation);
+            }
+            lastAppliedFrame = frame;
+        }
+        /**
+         * Applies the current frame, then moves to the next one, looping back to the first frame after the last
+         */
+        public void step() {
+            apply();
+            frame = frame + 1 == clip.frameCount ? 0 : frame + 1;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.metamechanists.displaymodellib.animation;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Display;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+
+/**
+ * Plays {@link KeyframeTimeline}s on displays by sending one transformation per keyframe, and letting the client interpolate between them
+ * Only displays with a keyframe due are touched on each tick, so a display costs one update per keyframe rather than one per tick
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class KeyframeAnimator {
+    private final PriorityQueue<Playback> queue = new PriorityQueue<>(Comparator.comparingLong(playback -> playback.nextSendTick));
+    private long currentTick;
+    private BukkitTask task;
+
+    /**
+     * A timeline being played on a display
+     */
+    @Getter
+    public static final class Playback {
+        @Getter(AccessLevel.NONE)
+        private final KeyframeAnimator animator;
+        private final Display display;
+        private final KeyframeTimeline timeline;
+        private final boolean looping;
+        /**
+         * The keyframe which will be sent next
+         */
+        private int keyframe = 1;
+        @Getter(AccessLevel.NONE)
+        private long startTick;
+        @Getter(AccessLevel.NONE)
+        private long nextSendTick;
+        private boolean finished;
+
+        private Playback(@NotNull final KeyframeAnimator animator, @NotNull final Display display, @NotNull final KeyframeTimeline timeline, final boolean looping) {
+            this.animator = animator;
+            this.display = display;
+            this.timeline = timeline;
+            this.looping = looping;
+        }
+
+        /**
+         * Stops sending keyframes. The client finishes interpolating to the last keyframe sent
+         */
+        public void stop() {
+            if (!finished) {
+                finished = true;
+                animator.queue.remove(this);
+            }
+        }
+    }
+
+    private static void send(@NotNull final Display display, @NotNull final KeyframeTimeline timeline, final int keyframe, final int duration) {
+        display.setInterpolationDelay(0);
+        display.setInterpolationDuration(duration);
+        display.setTransformation(timeline.getTransformationView(keyframe));
+    }
+
+    /**
+     * Snaps the display to the first keyframe, then plays the timeline from the next tick, so that every keyframe is reached the sampled number of ticks after the one before it
+     * @param looping Whether to restart the timeline after its last keyframe. For a seamless loop, the last keyframe should be the same as the first (eg a full turn)
+     */
+    public @NotNull Playback play(@NotNull final Display display, @NotNull final KeyframeTimeline timeline, final boolean looping) {
+        final Playback playback = new Playback(this, display, timeline, looping);
+        send(display, timeline, 0, 0);
+        // The timeline starts a tick late, so that the first keyframe is not merged with the snap and still gets its full duration
+        playback.startTick = currentTick + 1;
+        playback.nextSendTick = playback.startTick;
+        queue.add(playback);
+        return playback;
+    }
+
+    /**
+     * Advances to the next tick, then sends every keyframe which is due
+     * Keyframe n is sent when keyframe n - 1 is reached, with an interpolation duration which ends when keyframe n should be reached
+     */
+    public void tick() {
+        currentTick++;
+        while (!queue.isEmpty() && queue.peek().nextSendTick <= currentTick) {
+            final Playback playback = queue.poll();
+            if (playback.finished || !playback.display.isValid()) {
+                playback.finished = true;
+                continue;
+            }
+
+            final KeyframeTimeline timeline = playback.timeline;
+            final long arrivalTick = playback.startTick + timeline.getTick(playback.keyframe);
+            send(playback.display, timeline, playback.keyframe, (int) Math.max(0, arrivalTick - currentTick));
+            playback.keyframe++;
+
+            if (playback.keyframe == timeline.size()) {
+                if (!playback.looping) {
+                    playback.finished = true;
+                    continue;
+                }
+                // The last keyframe takes the place of the first, so the loop continues from the second
+                playback.startTick += timeline.getDuration();
+                playback.keyframe = 1;
+            }
+            playback.nextSendTick = arrivalTick;
+            queue.add(playback);
+        }
+    }
+
+    /**
+     * Stops every playback
+     */
+    public void stopAll() {
+        queue.forEach(playback -> playback.finished = true);
+        queue.clear();
+    }
+    /**
+     * @return The number of playbacks which have not finished or been stopped. Playbacks whose display has been removed are counted until their next keyframe is due
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Calls {@link #tick()} every tick until {@link #stop()} is called
+     */
+    public void start(@NotNull final Plugin plugin) {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1, 1);
+        }
+    }
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.metamechanists.displaymodellib.animation;
+
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+
+/**
+ * The keyframes of a single display's animation, chosen so that the client's own interpolation between them reproduces the animation
+ * Clients interpolate a display's translation and scale linearly and its rotation along the shortest arc, so a keyframe is only needed where that would stray from the animation
+ * For example, a fan spinning at a constant speed only needs a keyframe every time it turns by {@link #DEFAULT_MAX_ANGLE}, however long it spins for
+ * Clients move the display's origin in a straight line, so parts which rotate about any other point (eg block displays, whose origin is a corner) need more keyframes than items
+ * Timelines are immutable and can be shared between threads and displays
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class KeyframeTimeline {
+    /**
+     * The furthest (in blocks) any corner of a unit cube may be from where the animation puts it
+     */
+    public static final float DEFAULT_TOLERANCE = 0.01F;
+    /**
+     * The largest rotation (in radians) between two keyframes. Must be below pi, since clients always rotate along the shortest arc
+     */
+    public static final float DEFAULT_MAX_ANGLE = (float) Math.toRadians(120);
+    private final int[] ticks;
+    private final Transformation[] transformations;
+
+    private KeyframeTimeline(final int @NotNull [] ticks, @NotNull final Transformation[] transformations) {
+        this.ticks = ticks;
+        this.transformations = transformations;
+    }
+
+    /**
+     * @return The angle of the shortest arc between the two rotations
+     */
+    private static float getAngle(@NotNull final Quaternionf a, @NotNull final Quaternionf b) {
+        final float dot = Math.abs(a.x*b.x + a.y*b.y + a.z*b.z + a.w*b.w);
+        return (float) (2 * Math.acos(Math.min(1, dot)));
+    }
+
+    /**
+     * Sets dest to what the client displays between two keyframes
+     */
+    private static @NotNull Matrix4f interpolate(@NotNull final Pose from, @NotNull final Pose to, final float progress,
+                                                 @NotNull final Pose scratch, @NotNull final Matrix4f dest) {
+        from.translation.lerp(to.translation, progress, scratch.translation);
+        from.rotation.slerp(to.rotation, progress, scratch.rotation);
+        from.scale.lerp(to.scale, progress, scratch.scale);
+        return scratch.toMatrix(dest);
+    }
+
+    /**
+     * Samples the pose function on every tick of the animation, then keeps only the keyframes needed to reproduce it within {@link #DEFAULT_TOLERANCE}
+     * The pose is usually a component's matrix, for example tick -> new ModelCuboid(blade).rotateY(tick * speed).getMatrix()
+     * @param durationTicks The length of the animation. The pose is sampled from tick 0 to this tick inclusive
+     * @param pose Returns the matrix the display should have at the given tick
+     */
+    public static @NotNull KeyframeTimeline sample(final int durationTicks, @NotNull final IntFunction<? extends Matrix4fc> pose) {
+        return sample(durationTicks, pose, DEFAULT_TOLERANCE, DEFAULT_MAX_ANGLE);
+    }
+    /**
+     * Samples the pose function on every tick of the animation, then keeps only the keyframes needed to reproduce it within the tolerance
+     * A new keyframe is started wherever the client's interpolation would stray from the samples, or the rotation since the last keyframe would exceed the max angle
+     * @param durationTicks The length of the animation. The pose is sampled from tick 0 to this tick inclusive
+     * @param pose Returns the matrix the display should have at the given tick
+     * @param tolerance The furthest (in blocks) any corner of a unit cube may be from where the pose puts it
+     * @param maxAngle The largest rotation (in radians) between two keyframes
+     */
+    public static @NotNull KeyframeTimeline sample(final int durationTicks, @NotNull final IntFunction<? extends Matrix4fc> pose,
+                                                   final float tolerance, final float maxAngle) {
+        if (durationTicks < 1) {
+            throw new IllegalArgumentException("Duration must be at least one tick");
+        }
+        if (maxAngle <= 0 || maxAngle >= Math.PI) {
+            throw new IllegalArgumentException("Max angle must be between 0 and pi");
+        }
+
+        final Pose[] poses = new Pose[durationTicks + 1];
+        final Matrix4f[] matrices = new Matrix4f[durationTicks + 1];
+        for (int tick = 0; tick <= durationTicks; tick++) {
+            matrices[tick] = new Matrix4f(pose.apply(tick));
+            poses[tick] = Pose.decompose(matrices[tick], tolerance);
+        }
+
+        final Pose scratch = new Pose();
+        final Matrix4f interpolated = new Matrix4f();
+        final Vector3f cornerA = new Vector3f();
+        final Vector3f cornerB = new Vector3f();
+        final List<Integer> keyframes = new ArrayList<>();
+        keyframes.add(0);
+        int start = 0;
+        while (start < durationTicks) {
+            // The next tick can always be reached, so extend the segment from there for as long as it still fits
+            int end = start + 1;
+            extend:
+            for (int candidate = end + 1; candidate <= durationTicks; candidate++) {
+                if (getAngle(poses[start].rotation, poses[candidate].rotation) > maxAngle) {
+                    break;
+                }
+                for (int tick = start + 1; tick < candidate; tick++) {
+                    final float progress = (float) (tick - start) / (candidate - start);
+                    interpolate(poses[start], poses[candidate], progress, scratch, interpolated);
+                    if (Pose.getError(interpolated, matrices[tick], cornerA, cornerB) > tolerance) {
+                        break extend;
+                    }
+                }
+                end = candidate;
+            }
+            keyframes.add(end);
+            start = end;
+        }
+
+        final int[] ticks = new int[keyframes.size()];
+        final Transformation[] transformations = new Transformation[keyframes.size()];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = keyframes.get(i);
+            transformations[i] = poses[ticks[i]].toTransformation();
+        }
+        return new KeyframeTimeline(ticks, transformations);
+    }
+
+    /**
+     * @return The number of keyframes, including the first and last
+     */
+    public int size() {
+        return ticks.length;
+    }
+    /**
+     * @return The length of the animation in ticks
+     */
+    public int getDuration() {
+        return ticks[ticks.length - 1];
+    }
+    /**
+     * @return The tick the keyframe is reached at
+     */
+    public int getTick(final int keyframe) {
+        return ticks[keyframe];
+    }
+    /**
+     * @return A copy of the keyframe's transformation
+     */
+    public @NotNull Transformation getTransformation(final int keyframe) {
+        final Transformation transformation = transformations[keyframe];
+        return new Transformation(
+                new Vector3f(transformation.getTranslation()),
+                new Quaternionf(transformation.getLeftRotation()),
+                new Vector3f(transformation.getScale()),
+                new Quaternionf(transformation.getRightRotation()));
+    }
+    @NotNull Transformation getTransformationView(final int keyframe) {
+        return transformations[keyframe];
+    }
+}
@@ -0,0 +1,64 @@
+package org.metamechanists.displaymodellib.animation;
+
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+
+/**
+ * A matrix decomposed into the translation, rotation and scale which displays store and clients interpolate
+ */
+final class Pose {
+    final Vector3f translation = new Vector3f();
+    final Quaternionf rotation = new Quaternionf();
+    final Vector3f scale = new Vector3f();
+
+    @NotNull Matrix4f toMatrix(@NotNull final Matrix4f dest) {
+        return dest.translationRotateScale(translation, rotation, scale);
+    }
+    @NotNull Transformation toTransformation() {
+        return new Transformation(new Vector3f(translation), new Quaternionf(rotation), new Vector3f(scale), new Quaternionf());
+    }
+
+    /**
+     * @return The furthest any corner of a unit cube is moved between the two matrices
+     */
+    static float getError(@NotNull final Matrix4fc a, @NotNull final Matrix4fc b, @NotNull final Vector3f cornerA, @NotNull final Vector3f cornerB) {
+        float error = 0;
+        for (int corner = 0; corner < 8; corner++) {
+            final float x = corner & 1;
+            final float y = (corner >> 1) & 1;
+            final float z = (corner >> 2) & 1;
+            a.transformPosition(x, y, z, cornerA);
+            b.transformPosition(x, y, z, cornerB);
+            error = Math.max(error, cornerA.distance(cornerB));
+        }
+        return error;
+    }
+
+    /**
+     * @param tolerance The furthest any corner of a unit cube may be moved by the decomposition
+     * @throws IllegalArgumentException If the matrix is sheared, so cannot be decomposed within the tolerance
+     */
+    static @NotNull Pose decompose(@NotNull final Matrix4fc matrix, final float tolerance) {
+        final Pose pose = new Pose();
+        matrix.getTranslation(pose.translation);
+        matrix.getScale(pose.scale);
+        if (matrix.determinant3x3() < 0) {
+            // Mirrored, which a rotation cannot represent
+            pose.scale.x = -pose.scale.x;
+        }
+        if (Math.abs(pose.scale.x) > 1.0E-6F && Math.abs(pose.scale.y) > 1.0E-6F && Math.abs(pose.scale.z) > 1.0E-6F) {
+            final Matrix3f linear = matrix.get3x3(new Matrix3f()).scale(1 / pose.scale.x, 1 / pose.scale.y, 1 / pose.scale.z);
+            linear.getNormalizedRotation(pose.rotation);
+        }
+        if (getError(matrix, pose.toMatrix(new Matrix4f()), new Vector3f(), new Vector3f()) > tolerance) {
+            throw new IllegalArgumentException("Poses must be made of a translation, rotation and scale, without shearing");
+        }
+        return pose;
+    }
+}
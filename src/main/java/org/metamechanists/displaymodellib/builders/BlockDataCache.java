@@ -0,0 +1,86 @@
+package org.metamechanists.displaymodellib.builders;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Shared, thread safe cache of {@link BlockData}, so that models using the same few materials do not create and parse new block data for every display
+ * The returned block data is shared between every caller, and must not be modified (clone it first if you need to)
+ */
+@UtilityClass
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class BlockDataCache {
+    private final Map<Material, BlockData> BY_MATERIAL = new ConcurrentHashMap<>();
+    private final Map<String, BlockData> BY_STRING = new ConcurrentHashMap<>();
+    private final LongAdder HITS = new LongAdder();
+    private final LongAdder MISSES = new LongAdder();
+
+    /**
+     * @return The default block data of the material
+     */
+    public @NotNull BlockData get(@NotNull final Material material) {
+        final BlockData blockData = BY_MATERIAL.get(material);
+        if (blockData != null) {
+            HITS.increment();
+            return blockData;
+        }
+        MISSES.increment();
+        return BY_MATERIAL.computeIfAbsent(material, Material::createBlockData);
+    }
+    /**
+     * @param data The block data in the same format as {@link BlockData#getAsString()}, eg "minecraft:oak_stairs[facing=north]"
+     */
+    public @NotNull BlockData get(@NotNull final String data) {
+        final BlockData blockData = BY_STRING.get(data);
+        if (blockData != null) {
+            HITS.increment();
+            return blockData;
+        }
+        MISSES.increment();
+        final BlockData created = Bukkit.createBlockData(data);
+        // The string may not be canonical (eg missing states), so store the result under both forms
+        final BlockData interned = BY_STRING.computeIfAbsent(created.getAsString(), key -> created);
+        BY_STRING.putIfAbsent(data, interned);
+        return interned;
+    }
+    /**
+     * @return The cached block data equal to the given block data. The given block data is copied if it is not cached yet, so it may still be modified afterwards
+     */
+    public @NotNull BlockData intern(@NotNull final BlockData blockData) {
+        final String key = blockData.getAsString();
+        final BlockData cached = BY_STRING.get(key);
+        if (cached != null) {
+            HITS.increment();
+            return cached;
+        }
+        MISSES.increment();
+        return BY_STRING.computeIfAbsent(key, k -> blockData.clone());
+    }
+
+    public long getHits() {
+        return HITS.sum();
+    }
+    public long getMisses() {
+        return MISSES.sum();
+    }
+    public int size() {
+        return BY_MATERIAL.size() + BY_STRING.size();
+    }
+    /**
+     * Empties the cache and resets the statistics
+     */
+    public void clear() {
+        BY_MATERIAL.clear();
+        BY_STRING.clear();
+        HITS.reset();
+        MISSES.reset();
+    }
+}
@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.builders;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -8,13 +9,18 @@ import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Display.Brightness;
+import org.bukkit.entity.EntityType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 @Getter
 public class BlockDisplayBuilder implements DisplayBuilder {
     private Material material;
+    // Interned, so shared with every other builder using the same state
+    @Getter(AccessLevel.NONE)
     private BlockData blockData;
     private Matrix4f transformation;
     private Color glowColor;
@@ -28,7 +34,7 @@ public class BlockDisplayBuilder implements DisplayBuilder {
     public BlockDisplayBuilder(@NotNull final BlockDisplayBuilder other) {
         this.material = other.material;
         this.blockData = other.blockData;
-        this.transformation = other.transformation;
+        this.transformation = other.transformation == null ? null : new Matrix4f(other.transformation);
         this.glowColor = other.glowColor;
         this.brightness = other.brightness;
         this.viewRange = other.viewRange;
@@ -48,12 +54,17 @@ public class BlockDisplayBuilder implements DisplayBuilder {
         });
     }
     @Override
+    public BlockDisplay build(@NotNull final Location location, @NotNull final DisplayPool pool) {
+        final BlockDisplay display = pool.take(location, BlockDisplay.class, this::update);
+        return display == null ? build(location) : display;
+    }
+    @Override
     public void update(@NotNull final Display display) {
         if (!(display instanceof final BlockDisplay blockDisplay)) {
             throw new IllegalArgumentException("Must provide a BlockDisplay");
         }
         if (material != null) {
-            blockDisplay.setBlock(material.createBlockData());
+            blockDisplay.setBlock(BlockDataCache.get(material));
         }
         if (blockData != null) {
             blockDisplay.setBlock(blockData);
@@ -75,9 +86,70 @@ public class BlockDisplayBuilder implements DisplayBuilder {
             blockDisplay.setInterpolationDelay(interpolationDelay);
         }
         if (interpolationDuration != null) {
-            blockDisplay.setInterpolationDelay(interpolationDuration);
+            blockDisplay.setInterpolationDuration(interpolationDuration);
+        }
+    }
+    @Override
+    public void update(@NotNull final Display display, @NotNull final DisplayStateCache cache) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        final DisplayStateCache.State state = cache.getState(blockDisplay);
+        if (blockData != null) {
+            if (state.content(blockData)) {
+                blockDisplay.setBlock(blockData);
+            }
+        } else if (material != null && state.content(material)) {
+            blockDisplay.setBlock(BlockDataCache.get(material));
+        }
+        final boolean transformationChanged = transformation != null && state.transformation(transformation, cache.getEpsilon());
+        if (transformationChanged) {
+            blockDisplay.setTransformationMatrix(transformation);
+        }
+        if (glowColor != null && state.glowColor(glowColor)) {
+            blockDisplay.setGlowing(true);
+            blockDisplay.setGlowColorOverride(glowColor);
+        }
+        if (brightness != null && state.brightness(brightness)) {
+            blockDisplay.setBrightness(new Brightness(brightness, 0));
+        }
+        if (viewRange != null && state.viewRange(viewRange)) {
+            blockDisplay.setViewRange(viewRange);
+        }
+        if (interpolationDelay != null && state.interpolationDelay(interpolationDelay, transformationChanged)) {
+            blockDisplay.setInterpolationDelay(interpolationDelay);
+        }
+        if (interpolationDuration != null && state.interpolationDuration(interpolationDuration)) {
+            blockDisplay.setInterpolationDuration(interpolationDuration);
         }
     }
+    @Override
+    public BlockDisplayBuilder copy() {
+        return new BlockDisplayBuilder(this);
+    }
+    @Override
+    public BlockDisplayBuilder snapshot() {
+        // Block data is interned and never modified, so a copy is already a snapshot
+        return copy();
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location location) {
+        return new VirtualDisplay(EntityType.BLOCK_DISPLAY, location, copy());
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        if (display.getType() != EntityType.BLOCK_DISPLAY) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        display.setState(copy());
+    }
+
+    /**
+     * @return A copy of the block data, which may be freely modified
+     */
+    public @Nullable BlockData getBlockData() {
+        return blockData == null ? null : blockData.clone();
+    }
 
     public BlockDisplayBuilder material(final Material material) {
         this.material = material;
@@ -85,9 +157,10 @@ public class BlockDisplayBuilder implements DisplayBuilder {
     }
     public BlockDisplayBuilder blockData(final BlockData blockData) {
         // Overrides material
-        this.blockData = blockData;
+        this.blockData = blockData == null ? null : BlockDataCache.intern(blockData);
         return this;
     }
+    @Override
     public BlockDisplayBuilder transformation(final Matrix4f transformation) {
         this.transformation = transformation;
         return this;
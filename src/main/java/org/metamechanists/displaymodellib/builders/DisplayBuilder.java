@@ -3,10 +3,37 @@ package org.metamechanists.displaymodellib.builders;
 import org.bukkit.Location;
 import org.bukkit.entity.Display;
 import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 public interface DisplayBuilder {
     @SuppressWarnings("unused")
     Display build(@NotNull final Location location);
+    /**
+     * Equivalent to {@link #build(Location)}, but reuses a parked display from the pool if there is one
+     */
+    Display build(@NotNull final Location location, @NotNull final DisplayPool pool);
     void update(@NotNull final Display display);
+    /**
+     * Equivalent to {@link #update(Display)}, but only sets the properties which have changed since the display was last updated through the given cache
+     */
+    void update(@NotNull final Display display, @NotNull final DisplayStateCache cache);
+    DisplayBuilder transformation(final Matrix4f transformation);
+    /**
+     * @return An independent copy of the builder, which is not affected by later changes to this one
+     */
+    DisplayBuilder copy();
+    /**
+     * @return A copy of the builder which shares nothing mutable with this one, so later changes to this builder or anything it refers to (eg a text template) never affect it
+     */
+    DisplayBuilder snapshot();
+    /**
+     * Equivalent to {@link #build(Location)}, but creates a display which only exists on clients, sent through a {@link org.metamechanists.displaymodellib.virtual.VirtualDisplayTracker}
+     */
+    VirtualDisplay buildVirtual(@NotNull final Location location);
+    /**
+     * Replaces the state of the virtual display with a snapshot of this builder
+     */
+    void updateVirtual(@NotNull final VirtualDisplay display);
 }
@@ -0,0 +1,214 @@
+package org.metamechanists.displaymodellib.builders;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Display.Billboard;
+import org.bukkit.entity.Interaction;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.entity.TextDisplay.TextAlignment;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.models.ModelInstanceTags;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+
+/**
+ * Keeps removed displays hidden and parked, so that they can be reused instead of spawning new ones
+ * Reusing a display avoids allocating an entity, registering it with the tracker and sending a spawn packet
+ * Parked displays are hidden from every player, not saved with the chunk, and reset to their default state so that builders can re-initialise them with {@link DisplayBuilder#update(Display)}
+ * Resetting also clears the library's {@link ModelInstanceTags}, so a reused display never carries the identity of the model it was parked from
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class DisplayPool {
+    public static final int DEFAULT_CAPACITY = 256;
+    public static final int DEFAULT_MAX_IDLE_TICKS = 20 * 60;
+    private final int capacity;
+    private final int maxIdleTicks;
+    private final Map<UUID, Map<Class<? extends Display>, Deque<Parked>>> pools = new HashMap<>();
+    private BukkitTask task;
+
+    private static final class Parked {
+        private final Display display;
+        private final int parkedTick;
+
+        private Parked(@NotNull final Display display, final int parkedTick) {
+            this.display = display;
+            this.parkedTick = parkedTick;
+        }
+    }
+
+    public DisplayPool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_IDLE_TICKS);
+    }
+    /**
+     * @param capacity The maximum number of parked displays of each type in each world. Displays parked beyond this are removed
+     * @param maxIdleTicks How long a display may stay parked before it is removed by {@link #evictIdle()}
+     */
+    public DisplayPool(final int capacity, final int maxIdleTicks) {
+        this.capacity = capacity;
+        this.maxIdleTicks = maxIdleTicks;
+    }
+
+    private static @NotNull Class<? extends Display> getType(@NotNull final Display display) {
+        if (display instanceof BlockDisplay) {
+            return BlockDisplay.class;
+        }
+        if (display instanceof ItemDisplay) {
+            return ItemDisplay.class;
+        }
+        if (display instanceof TextDisplay) {
+            return TextDisplay.class;
+        }
+        throw new IllegalArgumentException("Must provide a BlockDisplay, ItemDisplay or TextDisplay");
+    }
+
+    private @NotNull Deque<Parked> getPool(@NotNull final UUID world, @NotNull final Class<? extends Display> type) {
+        return pools.computeIfAbsent(world, key -> new HashMap<>()).computeIfAbsent(type, key -> new ArrayDeque<>());
+    }
+
+    private static void reset(@NotNull final Display display) {
+        ModelInstanceTags.untag(display);
+        display.setTransformationMatrix(new Matrix4f());
+        display.setGlowing(false);
+        display.setGlowColorOverride(null);
+        display.setBrightness(null);
+        display.setBillboard(Billboard.FIXED);
+        display.setViewRange(1);
+        display.setInterpolationDelay(0);
+        display.setInterpolationDuration(0);
+        if (display instanceof final BlockDisplay blockDisplay) {
+            blockDisplay.setBlock(BlockDataCache.get(Material.AIR));
+        } else if (display instanceof final ItemDisplay itemDisplay) {
+            itemDisplay.setItemStack(null);
+        } else if (display instanceof final TextDisplay textDisplay) {
+            textDisplay.text(Component.empty());
+            textDisplay.setAlignment(TextAlignment.CENTER);
+            textDisplay.setBackgroundColor(null);
+        }
+    }
+
+    /**
+     * Hides the display and keeps it to be reused, or removes it if the pool for its type and world is full
+     */
+    public void park(@NotNull final Display display) {
+        if (!display.isValid()) {
+            return;
+        }
+        final Deque<Parked> pool = getPool(display.getWorld().getUID(), getType(display));
+        if (pool.size() >= capacity) {
+            display.remove();
+            return;
+        }
+        // Hidden before resetting, so that the reset is not sent to anyone
+        display.setVisibleByDefault(false);
+        display.setPersistent(false);
+        reset(display);
+        pool.push(new Parked(display, Bukkit.getCurrentTick()));
+    }
+    /**
+     * Parks every display in the group, and removes the group's parent interaction
+     * The group is left empty, so removing it afterwards does not remove the parked displays
+     */
+    public void park(@NotNull final DisplayGroup group) {
+        for (final String name : new ArrayList<>(group.getDisplays().keySet())) {
+            final Display display = group.removeDisplay(name);
+            if (display != null) {
+                park(display);
+            }
+        }
+        final Interaction parent = group.getParentDisplay();
+        if (parent != null) {
+            parent.remove();
+        }
+    }
+
+    /**
+     * Takes a parked display of the given type from the location's world, moves it to the location, and makes it visible again
+     * @param initialiser Called before the display is made visible, so that players never see it in its reset state
+     * @return The display, or null if there are no parked displays of that type in the world
+     */
+    public <T extends Display> @Nullable T take(@NotNull final Location location, @NotNull final Class<T> type, @NotNull final Consumer<? super T> initialiser) {
+        final Deque<Parked> pool = getPool(location.getWorld().getUID(), type);
+        while (!pool.isEmpty()) {
+            final Display display = pool.pop().display;
+            // The display may have been unloaded along with its chunk
+            if (!display.isValid()) {
+                continue;
+            }
+            final Location finalLocation = location.clone();
+            finalLocation.setYaw(0);
+            finalLocation.setPitch(0);
+            display.teleport(finalLocation);
+            final T typedDisplay = type.cast(display);
+            initialiser.accept(typedDisplay);
+            display.setPersistent(true);
+            display.setVisibleByDefault(true);
+            return typedDisplay;
+        }
+        return null;
+    }
+
+    /**
+     * Removes every display which has been parked for longer than the maximum idle time
+     */
+    public void evictIdle() {
+        final int currentTick = Bukkit.getCurrentTick();
+        for (final Map<Class<? extends Display>, Deque<Parked>> worldPools : pools.values()) {
+            for (final Deque<Parked> pool : worldPools.values()) {
+                // The oldest displays are at the bottom of the stack
+                final Iterator<Parked> iterator = pool.descendingIterator();
+                while (iterator.hasNext()) {
+                    final Parked parked = iterator.next();
+                    if (currentTick - parked.parkedTick <= maxIdleTicks) {
+                        break;
+                    }
+                    parked.display.remove();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+    /**
+     * Removes every parked display
+     */
+    public void clear() {
+        pools.values().forEach(worldPools -> worldPools.values().forEach(pool -> pool.forEach(parked -> parked.display.remove())));
+        pools.clear();
+    }
+    public int size() {
+        return pools.values().stream().flatMap(worldPools -> worldPools.values().stream()).mapToInt(Deque::size).sum();
+    }
+
+    /**
+     * Calls {@link #evictIdle()} every second until {@link #stop()} is called
+     */
+    public void start(@NotNull final Plugin plugin) {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::evictIdle, 20, 20);
+        }
+    }
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
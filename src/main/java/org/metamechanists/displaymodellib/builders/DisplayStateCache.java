@@ -0,0 +1,148 @@
+package org.metamechanists.displaymodellib.builders;
+
+import org.bukkit.Color;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Display.Billboard;
+import org.bukkit.entity.TextDisplay.TextAlignment;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * Remembers the last state applied to each display by {@link DisplayBuilder#update(Display, DisplayStateCache)}, so that only the properties which have changed are set again
+ * Every setter on a display marks its metadata as dirty, which results in a packet to every player tracking it, so skipping unchanged properties saves a lot of traffic for periodic refreshes
+ * Displays are held weakly, so removed displays do not need to be cleaned up. This is not thread safe, and should only be used on the main thread
+ * If a display is modified without going through the cache, call {@link #invalidate(Display)} so that its state is sent again on the next update
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class DisplayStateCache {
+    public static final float DEFAULT_EPSILON = 1.0E-4F;
+    private final float epsilon;
+    private final Map<Display, State> states = new WeakHashMap<>();
+
+    public DisplayStateCache() {
+        this(DEFAULT_EPSILON);
+    }
+    /**
+     * @param epsilon The largest difference in any element of a transformation matrix that is still considered unchanged
+     */
+    public DisplayStateCache(final float epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Forgets the state applied to the display, so that everything is set again on its next update
+     */
+    public void invalidate(@NotNull final Display display) {
+        states.remove(display);
+    }
+    public void clear() {
+        states.clear();
+    }
+
+    float getEpsilon() {
+        return epsilon;
+    }
+    @NotNull State getState(@NotNull final Display display) {
+        return states.computeIfAbsent(display, key -> new State());
+    }
+
+    /**
+     * The last values applied to a single display. A null field means that the property has not been set through the cache yet
+     */
+    static final class State {
+        private Object content;
+        private Matrix4f transformation;
+        private Color glowColor;
+        private Integer brightness;
+        private Float viewRange;
+        private Billboard billboard;
+        private TextAlignment alignment;
+        private Color backgroundColor;
+        private Integer interpolationDelay;
+        private Integer interpolationDuration;
+
+        /**
+         * @param content The block data, material, item stack or text of the display
+         */
+        boolean content(@NotNull final Object content) {
+            if (content.equals(this.content)) {
+                return false;
+            }
+            // Item stacks are mutable, so a copy is kept to notice changes made to the builder's stack
+            this.content = content instanceof final ItemStack itemStack ? itemStack.clone() : content;
+            return true;
+        }
+        boolean transformation(@NotNull final Matrix4fc transformation, final float epsilon) {
+            if (this.transformation != null && this.transformation.equals(transformation, epsilon)) {
+                return false;
+            }
+            this.transformation = new Matrix4f(transformation);
+            return true;
+        }
+        boolean glowColor(@NotNull final Color glowColor) {
+            if (glowColor.equals(this.glowColor)) {
+                return false;
+            }
+            this.glowColor = glowColor;
+            return true;
+        }
+        boolean brightness(@NotNull final Integer brightness) {
+            if (brightness.equals(this.brightness)) {
+                return false;
+            }
+            this.brightness = brightness;
+            return true;
+        }
+        boolean viewRange(@NotNull final Float viewRange) {
+            if (viewRange.equals(this.viewRange)) {
+                return false;
+            }
+            this.viewRange = viewRange;
+            return true;
+        }
+        boolean billboard(@NotNull final Billboard billboard) {
+            if (billboard == this.billboard) {
+                return false;
+            }
+            this.billboard = billboard;
+            return true;
+        }
+        boolean alignment(@NotNull final TextAlignment alignment) {
+            if (alignment == this.alignment) {
+                return false;
+            }
+            this.alignment = alignment;
+            return true;
+        }
+        boolean backgroundColor(@NotNull final Color backgroundColor) {
+            if (backgroundColor.equals(this.backgroundColor)) {
+                return false;
+            }
+            this.backgroundColor = backgroundColor;
+            return true;
+        }
+        /**
+         * The client only starts interpolating when the delay is sent, so it is always resent along with a new transformation
+         */
+        boolean interpolationDelay(@NotNull final Integer interpolationDelay, final boolean transformationChanged) {
+            if (!transformationChanged && interpolationDelay.equals(this.interpolationDelay)) {
+                return false;
+            }
+            this.interpolationDelay = interpolationDelay;
+            return true;
+        }
+        boolean interpolationDuration(@NotNull final Integer interpolationDuration) {
+            if (interpolationDuration.equals(this.interpolationDuration)) {
+                return false;
+            }
+            this.interpolationDuration = interpolationDuration;
+            return true;
+        }
+    }
+}
@@ -7,10 +7,12 @@ import org.bukkit.Material;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Display.Billboard;
 import org.bukkit.entity.Display.Brightness;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 @Getter
 @SuppressWarnings({"unused", "UnusedReturnValue"})
@@ -28,7 +30,7 @@ public class ItemDisplayBuilder implements DisplayBuilder {
 
     public ItemDisplayBuilder(@NotNull final ItemDisplayBuilder other) {
         this.itemStack = other.itemStack;
-        this.transformation = other.transformation;
+        this.transformation = other.transformation == null ? null : new Matrix4f(other.transformation);
         this.brightness = other.brightness;
         this.glowColor = other.glowColor;
         this.billboard = other.billboard;
@@ -50,6 +52,11 @@ public class ItemDisplayBuilder implements DisplayBuilder {
         });
     }
     @Override
+    public ItemDisplay build(@NotNull final Location location, @NotNull final DisplayPool pool) {
+        final ItemDisplay display = pool.take(location, ItemDisplay.class, this::update);
+        return display == null ? build(location) : display;
+    }
+    @Override
     public void update(@NotNull final Display display) {
         if (!(display instanceof final ItemDisplay itemDisplay)) {
             throw new IllegalArgumentException("Must provide an ItemDisplay");
@@ -77,8 +84,62 @@ public class ItemDisplayBuilder implements DisplayBuilder {
             itemDisplay.setInterpolationDelay(interpolationDelay);
         }
         if (interpolationDuration != null) {
-            itemDisplay.setInterpolationDelay(interpolationDuration);
+            itemDisplay.setInterpolationDuration(interpolationDuration);
+        }
+    }
+    @Override
+    public void update(@NotNull final Display display, @NotNull final DisplayStateCache cache) {
+        if (!(display instanceof final ItemDisplay itemDisplay)) {
+            throw new IllegalArgumentException("Must provide an ItemDisplay");
+        }
+        final DisplayStateCache.State state = cache.getState(itemDisplay);
+        if (itemStack != null && state.content(itemStack)) {
+            itemDisplay.setItemStack(itemStack);
+        }
+        final boolean transformationChanged = transformation != null && state.transformation(transformation, cache.getEpsilon());
+        if (transformationChanged) {
+            itemDisplay.setTransformationMatrix(transformation);
+        }
+        if (glowColor != null && state.glowColor(glowColor)) {
+            itemDisplay.setGlowing(true);
+            itemDisplay.setGlowColorOverride(glowColor);
+        }
+        if (brightness != null && state.brightness(brightness)) {
+            itemDisplay.setBrightness(new Brightness(brightness, 0));
+        }
+        if (billboard != null && state.billboard(billboard)) {
+            itemDisplay.setBillboard(billboard);
+        }
+        if (viewRange != null && state.viewRange(viewRange)) {
+            itemDisplay.setViewRange(viewRange);
+        }
+        if (interpolationDelay != null && state.interpolationDelay(interpolationDelay, transformationChanged)) {
+            itemDisplay.setInterpolationDelay(interpolationDelay);
         }
+        if (interpolationDuration != null && state.interpolationDuration(interpolationDuration)) {
+            itemDisplay.setInterpolationDuration(interpolationDuration);
+        }
+    }
+    @Override
+    public ItemDisplayBuilder copy() {
+        return new ItemDisplayBuilder(this);
+    }
+    @Override
+    public ItemDisplayBuilder snapshot() {
+        final ItemDisplayBuilder snapshot = copy();
+        snapshot.itemStack = itemStack == null ? null : itemStack.clone();
+        return snapshot;
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location location) {
+        return new VirtualDisplay(EntityType.ITEM_DISPLAY, location, copy());
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        if (display.getType() != EntityType.ITEM_DISPLAY) {
+            throw new IllegalArgumentException("Must provide an ItemDisplay");
+        }
+        display.setState(copy());
     }
 
     public ItemDisplayBuilder material(final Material material) {
@@ -90,6 +151,7 @@ public class ItemDisplayBuilder implements DisplayBuilder {
         this.itemStack = itemStack;
         return this;
     }
+    @Override
     public ItemDisplayBuilder transformation(final Matrix4f transformation) {
         this.transformation = transformation;
         return this;
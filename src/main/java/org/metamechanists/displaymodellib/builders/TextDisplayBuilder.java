@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.builders;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Color;
@@ -7,16 +8,21 @@ import org.bukkit.Location;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Display.Billboard;
 import org.bukkit.entity.Display.Brightness;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.entity.TextDisplay.TextAlignment;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.text.TemplatedText;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 @Getter
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 public class TextDisplayBuilder implements DisplayBuilder {
+    @Getter(AccessLevel.NONE)
     private Component text;
+    private TemplatedText template;
     private Matrix4f transformation;
     private Integer brightness;
     private Color glowColor;
@@ -31,7 +37,8 @@ public class TextDisplayBuilder implements DisplayBuilder {
 
     public TextDisplayBuilder(@NotNull final TextDisplayBuilder other) {
         this.text = other.text;
-        this.transformation = other.transformation;
+        this.template = other.template;
+        this.transformation = other.transformation == null ? null : new Matrix4f(other.transformation);
         this.brightness = other.brightness;
         this.glowColor = other.glowColor;
         this.viewRange = other.viewRange;
@@ -55,10 +62,16 @@ public class TextDisplayBuilder implements DisplayBuilder {
         });
     }
     @Override
+    public TextDisplay build(@NotNull final Location location, @NotNull final DisplayPool pool) {
+        final TextDisplay display = pool.take(location, TextDisplay.class, this::update);
+        return display == null ? build(location) : display;
+    }
+    @Override
     public void update(@NotNull final Display display) {
         if (!(display instanceof final TextDisplay textDisplay)) {
             throw new IllegalArgumentException("Must provide a TextDisplay");
         }
+        final Component text = getText();
         if (text != null) {
             textDisplay.text(text);
         }
@@ -88,18 +101,103 @@ public class TextDisplayBuilder implements DisplayBuilder {
             textDisplay.setInterpolationDelay(interpolationDelay);
         }
         if (interpolationDuration != null) {
-            textDisplay.setInterpolationDelay(interpolationDuration);
+            textDisplay.setInterpolationDuration(interpolationDuration);
+        }
+    }
+    @Override
+    public void update(@NotNull final Display display, @NotNull final DisplayStateCache cache) {
+        if (!(display instanceof final TextDisplay textDisplay)) {
+            throw new IllegalArgumentException("Must provide a TextDisplay");
+        }
+        final DisplayStateCache.State state = cache.getState(textDisplay);
+        final Component text = getText();
+        if (text != null && state.content(text)) {
+            textDisplay.text(text);
+        }
+        final boolean transformationChanged = transformation != null && state.transformation(transformation, cache.getEpsilon());
+        if (transformationChanged) {
+            textDisplay.setTransformationMatrix(transformation);
+        }
+        if (brightness != null && state.brightness(brightness)) {
+            textDisplay.setBrightness(new Brightness(brightness, 0));
+        }
+        if (glowColor != null && state.glowColor(glowColor)) {
+            textDisplay.setGlowing(true);
+            textDisplay.setGlowColorOverride(glowColor);
+        }
+        if (viewRange != null && state.viewRange(viewRange)) {
+            textDisplay.setViewRange(viewRange);
+        }
+        if (billboard != null && state.billboard(billboard)) {
+            textDisplay.setBillboard(billboard);
+        }
+        if (alignment != null && state.alignment(alignment)) {
+            textDisplay.setAlignment(alignment);
+        }
+        if (backgroundColor != null && state.backgroundColor(backgroundColor)) {
+            textDisplay.setBackgroundColor(backgroundColor);
+        }
+        if (interpolationDelay != null && state.interpolationDelay(interpolationDelay, transformationChanged)) {
+            textDisplay.setInterpolationDelay(interpolationDelay);
+        }
+        if (interpolationDuration != null && state.interpolationDuration(interpolationDuration)) {
+            textDisplay.setInterpolationDuration(interpolationDuration);
         }
     }
+    @Override
+    public TextDisplayBuilder copy() {
+        return new TextDisplayBuilder(this);
+    }
+    /**
+     * @return A copy with the template's current text in place of the template, so that it does not change when the template does
+     */
+    @Override
+    public @NotNull TextDisplayBuilder snapshot() {
+        final TextDisplayBuilder snapshot = copy();
+        snapshot.text = getText();
+        snapshot.template = null;
+        return snapshot;
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location location) {
+        return new VirtualDisplay(EntityType.TEXT_DISPLAY, location, snapshot());
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        if (display.getType() != EntityType.TEXT_DISPLAY) {
+            throw new IllegalArgumentException("Must provide a TextDisplay");
+        }
+        display.setState(snapshot());
+    }
+
+    /**
+     * @return The text which will be shown, which is the current text of the template if one is set
+     */
+    public Component getText() {
+        return template == null ? text : template.getText();
+    }
 
     public TextDisplayBuilder text(final String text) {
         this.text = Component.text(text);
+        this.template = null;
         return this;
     }
     public TextDisplayBuilder text(final Component text) {
         this.text = text;
+        this.template = null;
         return this;
     }
+    /**
+     * Renders the template's text whenever a display is built or updated, so setting a slot only needs an update to show the new text
+     * Combined with {@link #update(Display, DisplayStateCache)}, the text is only sent when it has changed
+     * Copies of the builder share the template, but virtual displays, {@link #snapshot()}s and compiled templates are given the text at the time they are made
+     */
+    public TextDisplayBuilder text(@NotNull final TemplatedText text) {
+        this.text = null;
+        this.template = text;
+        return this;
+    }
+    @Override
     public TextDisplayBuilder transformation(final Matrix4f transformation) {
         this.transformation = transformation;
         return this;
@@ -0,0 +1,18 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4fc;
+import org.metamechanists.displaymodellib.models.components.ModelComponent;
+
+
+/**
+ * Visits every component of a model, including those nested in {@link ModelGroup}s
+ */
+@FunctionalInterface
+public interface ComponentVisitor {
+    /**
+     * @param name The name the component's display is added to the display group with
+     * @param matrix The final matrix of the component, including the transformations of any groups it belongs to. Only valid for the duration of the call
+     */
+    void visit(@NotNull String name, @NotNull ModelComponent component, @NotNull Matrix4fc matrix);
+}
@@ -0,0 +1,165 @@
+package org.metamechanists.displaymodellib.models;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4fc;
+import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.models.components.ModelComponent;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+
+/**
+ * Merges cuboids which have identical display properties and together form an exact box into a single cuboid, reducing the number of displays in a model
+ * Only unrotated cuboids with positive scale are merged, and two cuboids are only merged if they share an entire face, so the shape of the model is unchanged
+ * The texture of the merged cuboid is stretched across the whole box, in the same way as any other scaled cuboid
+ */
+@UtilityClass
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class CuboidMerger {
+    private final double EPSILON = 1.0E-4;
+
+    /**
+     * @return The box covered by a block display with the given matrix, or null if the matrix is rotated, sheared or mirrored
+     */
+    @Nullable BoundingBox getAxisAlignedBox(@NotNull final Matrix4fc matrix) {
+        if (Math.abs(matrix.m01()) > EPSILON || Math.abs(matrix.m02()) > EPSILON
+                || Math.abs(matrix.m10()) > EPSILON || Math.abs(matrix.m12()) > EPSILON
+                || Math.abs(matrix.m20()) > EPSILON || Math.abs(matrix.m21()) > EPSILON
+                || matrix.m00() <= 0 || matrix.m11() <= 0 || matrix.m22() <= 0) {
+            return null;
+        }
+        return new BoundingBox(
+                matrix.m30(), matrix.m31(), matrix.m32(),
+                matrix.m30() + matrix.m00(), matrix.m31() + matrix.m11(), matrix.m32() + matrix.m22());
+    }
+
+    private boolean hasSameState(@NotNull final BlockDisplayBuilder a, @NotNull final BlockDisplayBuilder b) {
+        return Objects.equals(a.getMaterial(), b.getMaterial())
+                && Objects.equals(a.getBlockData(), b.getBlockData())
+                && Objects.equals(a.getGlowColor(), b.getGlowColor())
+                && Objects.equals(a.getBrightness(), b.getBrightness())
+                && Objects.equals(a.getViewRange(), b.getViewRange())
+                && Objects.equals(a.getInterpolationDelay(), b.getInterpolationDelay())
+                && Objects.equals(a.getInterpolationDuration(), b.getInterpolationDuration());
+    }
+
+    private boolean equal(final double a, final double b) {
+        return Math.abs(a - b) <= EPSILON;
+    }
+    /**
+     * @return Whether the two boxes share an entire face, so that their union is exactly a box
+     */
+    private boolean canMerge(@NotNull final BoundingBox a, @NotNull final BoundingBox b) {
+        final boolean sameX = equal(a.getMinX(), b.getMinX()) && equal(a.getMaxX(), b.getMaxX());
+        final boolean sameY = equal(a.getMinY(), b.getMinY()) && equal(a.getMaxY(), b.getMaxY());
+        final boolean sameZ = equal(a.getMinZ(), b.getMinZ()) && equal(a.getMaxZ(), b.getMaxZ());
+        final boolean touchX = equal(a.getMaxX(), b.getMinX()) || equal(b.getMaxX(), a.getMinX());
+        final boolean touchY = equal(a.getMaxY(), b.getMinY()) || equal(b.getMaxY(), a.getMinY());
+        final boolean touchZ = equal(a.getMaxZ(), b.getMinZ()) || equal(b.getMaxZ(), a.getMinZ());
+        return (touchX && sameY && sameZ) || (sameX && touchY && sameZ) || (sameX && sameY && touchZ);
+    }
+
+    private static final class Candidate {
+        private final String name;
+        private final BlockDisplayBuilder state;
+        private final BoundingBox box;
+        private boolean merged;
+
+        private Candidate(@NotNull final String name, @NotNull final BlockDisplayBuilder state, @NotNull final BoundingBox box) {
+            this.name = name;
+            this.state = state;
+            this.box = box;
+        }
+    }
+
+    private @NotNull ModelCuboid createCuboid(@NotNull final BlockDisplayBuilder state, @NotNull final BoundingBox box) {
+        final ModelCuboid cuboid = new ModelCuboid()
+                .translate(box.getCenterX(), box.getCenterY(), box.getCenterZ())
+                .scale(box.getWidthX(), box.getHeight(), box.getWidthZ());
+        if (state.getMaterial() != null) {
+            cuboid.material(state.getMaterial());
+        }
+        if (state.getBlockData() != null) {
+            cuboid.block(state.getBlockData());
+        }
+        if (state.getGlowColor() != null) {
+            cuboid.glow(state.getGlowColor());
+        }
+        if (state.getBrightness() != null) {
+            cuboid.brightness(state.getBrightness());
+        }
+        if (state.getViewRange() != null) {
+            cuboid.viewRange(state.getViewRange());
+        }
+        if (state.getInterpolationDelay() != null) {
+            cuboid.interpolationDelay(state.getInterpolationDelay());
+        }
+        if (state.getInterpolationDuration() != null) {
+            cuboid.interpolationDuration(state.getInterpolationDuration());
+        }
+        return cuboid;
+    }
+
+    /**
+     * Merges the model's top level cuboids in place. Cuboids inside groups are left alone
+     * Each merged cuboid keeps the name of one of the cuboids it replaced, and the other names are removed
+     * @return The number of displays saved
+     */
+    public int merge(@NotNull final ModelBuilder model) {
+        final List<Candidate> candidates = new ArrayList<>();
+        // Sorted, so that the result does not depend on the order of the model's map
+        for (final Map.Entry<String, ModelComponent> entry : new TreeMap<>(model.getComponents()).entrySet()) {
+            if (!(entry.getValue() instanceof final ModelCuboid cuboid)) {
+                continue;
+            }
+            final BoundingBox box = getAxisAlignedBox(cuboid.getMatrixView());
+            if (box != null) {
+                candidates.add(new Candidate(entry.getKey(), cuboid.getMain(), box));
+            }
+        }
+
+        final List<Candidate> changed = new ArrayList<>();
+        int saved = 0;
+        boolean mergedAny = true;
+        while (mergedAny) {
+            mergedAny = false;
+            for (final Candidate a : candidates) {
+                if (a.merged) {
+                    continue;
+                }
+                for (final Candidate b : candidates) {
+                    if (a == b || b.merged || !hasSameState(a.state, b.state) || !canMerge(a.box, b.box)) {
+                        continue;
+                    }
+                    a.box.union(b.box);
+                    b.merged = true;
+                    if (!changed.contains(a)) {
+                        changed.add(a);
+                    }
+                    saved++;
+                    mergedAny = true;
+                }
+            }
+        }
+
+        for (final Candidate candidate : candidates) {
+            if (candidate.merged) {
+                model.getComponents().remove(candidate.name);
+            }
+        }
+        for (final Candidate candidate : changed) {
+            if (!candidate.merged) {
+                model.getComponents().put(candidate.name, createCuboid(candidate.state, candidate.box));
+            }
+        }
+        return saved;
+    }
+}
@@ -0,0 +1,165 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.Material;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.models.components.ModelComponent;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Finds opaque cuboids which are completely enclosed by other opaque cuboids, and so can never be seen
+ * Only unrotated top level cuboids are considered, either as hidden components or as occluders. Glowing cuboids are never removed, since their outline shows through other blocks
+ * Cuboids are checked one at a time, and a removed cuboid no longer hides anything, so two identical cuboids will never both be removed
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class HiddenComponentCuller {
+    private final Map<Material, Boolean> opacity = new EnumMap<>(Material.class);
+
+    /**
+     * The components found to be hidden, and the box each of them covered
+     */
+    public static final class Report {
+        private final Map<String, BoundingBox> hidden;
+
+        private Report(@NotNull final Map<String, BoundingBox> hidden) {
+            this.hidden = hidden;
+        }
+
+        public @NotNull List<String> getNames() {
+            return new ArrayList<>(hidden.keySet());
+        }
+        public @NotNull Map<String, BoundingBox> getBoxes() {
+            return Collections.unmodifiableMap(hidden);
+        }
+        public int size() {
+            return hidden.size();
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder("Hidden components: ").append(hidden.size());
+            hidden.forEach((name, box) -> builder.append('\n').append("  ").append(name).append(' ').append(box));
+            return builder.toString();
+        }
+    }
+
+    /**
+     * Overrides whether a material hides what is behind it. By default, {@link Material#isOccluding()} is used
+     */
+    public HiddenComponentCuller opaque(@NotNull final Material material, final boolean opaque) {
+        opacity.put(material, opaque);
+        return this;
+    }
+
+    public boolean isOpaque(@NotNull final BlockDisplayBuilder state) {
+        final Material material = state.getBlockData() != null ? state.getBlockData().getMaterial() : state.getMaterial();
+        if (material == null) {
+            return false;
+        }
+        final Boolean opaque = opacity.get(material);
+        return opaque != null ? opaque : material.isOccluding();
+    }
+
+    private static double[] getCoordinates(final double min, final double max, @NotNull final List<BoundingBox> occluders, final int axis) {
+        final List<Double> coordinates = new ArrayList<>();
+        coordinates.add(min);
+        coordinates.add(max);
+        for (final BoundingBox occluder : occluders) {
+            final double occluderMin = axis == 0 ? occluder.getMinX() : axis == 1 ? occluder.getMinY() : occluder.getMinZ();
+            final double occluderMax = axis == 0 ? occluder.getMaxX() : axis == 1 ? occluder.getMaxY() : occluder.getMaxZ();
+            if (occluderMin > min && occluderMin < max) {
+                coordinates.add(occluderMin);
+            }
+            if (occluderMax > min && occluderMax < max) {
+                coordinates.add(occluderMax);
+            }
+        }
+        return coordinates.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+    }
+
+    /**
+     * Splits the box into cells along every occluder boundary inside it, which are each either entirely covered or entirely uncovered by each occluder
+     * The box is then inside the union of the occluders exactly when the center of every cell is inside one of them
+     */
+    private static boolean isContained(@NotNull final BoundingBox box, @NotNull final List<BoundingBox> occluders) {
+        final List<BoundingBox> relevant = new ArrayList<>();
+        for (final BoundingBox occluder : occluders) {
+            if (occluder.overlaps(box)) {
+                relevant.add(occluder);
+            }
+        }
+        if (relevant.isEmpty()) {
+            return false;
+        }
+
+        final double[] xs = getCoordinates(box.getMinX(), box.getMaxX(), relevant, 0);
+        final double[] ys = getCoordinates(box.getMinY(), box.getMaxY(), relevant, 1);
+        final double[] zs = getCoordinates(box.getMinZ(), box.getMaxZ(), relevant, 2);
+        for (int x = 0; x < xs.length - 1; x++) {
+            final double cellX = (xs[x] + xs[x + 1]) / 2;
+            for (int y = 0; y < ys.length - 1; y++) {
+                final double cellY = (ys[y] + ys[y + 1]) / 2;
+                for (int z = 0; z < zs.length - 1; z++) {
+                    final double cellZ = (zs[z] + zs[z + 1]) / 2;
+                    if (relevant.stream().noneMatch(occluder -> occluder.contains(cellX, cellY, cellZ))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the hidden components without modifying the model
+     */
+    public @NotNull Report findHidden(@NotNull final ModelBuilder model) {
+        final Map<String, BoundingBox> boxes = new LinkedHashMap<>();
+        final List<String> candidates = new ArrayList<>();
+        // Sorted, so that the result does not depend on the order of the model's map
+        for (final Map.Entry<String, ModelComponent> entry : new TreeMap<>(model.getComponents()).entrySet()) {
+            if (!(entry.getValue() instanceof final ModelCuboid cuboid) || !isOpaque(cuboid.getMain())) {
+                continue;
+            }
+            final BoundingBox box = CuboidMerger.getAxisAlignedBox(cuboid.getMatrixView());
+            if (box == null) {
+                continue;
+            }
+            boxes.put(entry.getKey(), box);
+            if (cuboid.getMain().getGlowColor() == null) {
+                candidates.add(entry.getKey());
+            }
+        }
+
+        final Map<String, BoundingBox> hidden = new LinkedHashMap<>();
+        for (final String name : candidates) {
+            final BoundingBox box = boxes.remove(name);
+            if (isContained(box, new ArrayList<>(boxes.values()))) {
+                hidden.put(name, box);
+            } else {
+                boxes.put(name, box);
+            }
+        }
+        return new Report(hidden);
+    }
+
+    /**
+     * Removes the hidden components from the model
+     * @return A report of the components which were removed
+     */
+    public @NotNull Report cull(@NotNull final ModelBuilder model) {
+        final Report report = findHidden(model);
+        report.hidden.keySet().forEach(model.getComponents()::remove);
+        return report;
+    }
+}
@@ -0,0 +1,111 @@
+package org.metamechanists.displaymodellib.models;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Vector3f;
+import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+import org.metamechanists.displaymodellib.builders.ItemDisplayBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Calculates a small set of interaction hitboxes which cover a model, from the matrices of its components
+ * The bounding box of each block and item display is calculated, then the pair of boxes which wastes the least space when combined is repeatedly merged
+ * Text displays are ignored, since they have no fixed size
+ */
+@UtilityClass
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class HitboxFitter {
+    /**
+     * @return The axis aligned bounding box of each block and item display in the model, relative to the model's center
+     */
+    public @NotNull List<BoundingBox> getComponentBoxes(@NotNull final ModelBuilder model) {
+        final List<BoundingBox> boxes = new ArrayList<>();
+        final Vector3f min = new Vector3f();
+        final Vector3f max = new Vector3f();
+        model.forEachComponent((name, component, matrix) -> {
+            final DisplayBuilder builder = component.getMain();
+            if (builder instanceof BlockDisplayBuilder) {
+                // Block displays are rendered from their corner
+                matrix.transformAab(0, 0, 0, 1, 1, 1, min, max);
+            } else if (builder instanceof ItemDisplayBuilder) {
+                // Item displays are rendered from their center
+                matrix.transformAab(-0.5F, -0.5F, -0.5F, 0.5F, 0.5F, 0.5F, min, max);
+            } else {
+                return;
+            }
+            boxes.add(new BoundingBox(min.x, min.y, min.z, max.x, max.y, max.z));
+        });
+        return boxes;
+    }
+
+    private double getOverlapVolume(@NotNull final BoundingBox a, @NotNull final BoundingBox b) {
+        final double x = Math.min(a.getMaxX(), b.getMaxX()) - Math.max(a.getMinX(), b.getMinX());
+        final double y = Math.min(a.getMaxY(), b.getMaxY()) - Math.max(a.getMinY(), b.getMinY());
+        final double z = Math.min(a.getMaxZ(), b.getMaxZ()) - Math.max(a.getMinZ(), b.getMinZ());
+        return x > 0 && y > 0 && z > 0 ? x * y * z : 0;
+    }
+    /**
+     * @return The volume inside the union of the two boxes which neither box covers
+     */
+    private double getWastedVolume(@NotNull final BoundingBox a, @NotNull final BoundingBox b) {
+        final double covered = a.getVolume() + b.getVolume() - getOverlapVolume(a, b);
+        return a.clone().union(b).getVolume() - covered;
+    }
+
+    /**
+     * Repeatedly merges the pair of boxes whose union wastes the least space, until every merge would waste more than the tolerance
+     * @param tolerance The largest volume (in blocks cubed) of empty space a single merge may add. Zero still merges boxes which overlap or touch exactly
+     * @return The merged boxes. The given boxes are not modified
+     */
+    public @NotNull List<BoundingBox> merge(@NotNull final List<BoundingBox> boxes, final double tolerance) {
+        final List<BoundingBox> merged = new ArrayList<>(boxes.size());
+        boxes.forEach(box -> merged.add(box.clone()));
+
+        while (merged.size() > 1) {
+            int bestA = -1;
+            int bestB = -1;
+            double bestWaste = tolerance;
+            for (int a = 0; a < merged.size(); a++) {
+                for (int b = a + 1; b < merged.size(); b++) {
+                    final double waste = getWastedVolume(merged.get(a), merged.get(b));
+                    if (waste <= bestWaste) {
+                        bestA = a;
+                        bestB = b;
+                        bestWaste = waste;
+                    }
+                }
+            }
+            if (bestA == -1) {
+                break;
+            }
+            merged.get(bestA).union(merged.remove(bestB));
+        }
+
+        return merged;
+    }
+
+    /**
+     * Interactions have the same width on the X and Z axes, so this expands the box on the narrower axis to match, keeping the same center
+     */
+    public @NotNull BoundingBox squareFootprint(@NotNull final BoundingBox box) {
+        final double halfWidth = Math.max(box.getWidthX(), box.getWidthZ()) / 2;
+        return new BoundingBox(
+                box.getCenterX() - halfWidth, box.getMinY(), box.getCenterZ() - halfWidth,
+                box.getCenterX() + halfWidth, box.getMaxY(), box.getCenterZ() + halfWidth);
+    }
+
+    /**
+     * Calculates hitboxes covering every block and item display in the model
+     * @param tolerance The largest volume (in blocks cubed) of empty space a single merge may add
+     */
+    public @NotNull ModelHitboxes fit(@NotNull final ModelBuilder model, final double tolerance) {
+        final List<BoundingBox> boxes = new ArrayList<>();
+        merge(getComponentBoxes(model), tolerance).forEach(box -> boxes.add(squareFootprint(box)));
+        return new ModelHitboxes(boxes);
+    }
+}
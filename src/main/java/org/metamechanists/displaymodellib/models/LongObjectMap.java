@@ -0,0 +1,149 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+
+/**
+ * A hash map from primitive longs to non-null values, using open addressing with linear probing
+ * Avoids boxing the key and allocating an entry object for every mapping
+ */
+class LongObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5F;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    @FunctionalInterface
+    interface EntryConsumer<V> {
+        void accept(long key, @NotNull V value);
+    }
+
+    LongObjectMap() {
+        this.keys = new long[DEFAULT_CAPACITY];
+        this.values = new Object[DEFAULT_CAPACITY];
+    }
+
+    private static int mix(final long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+    private int slot(final long key) {
+        return mix(key) & (keys.length - 1);
+    }
+
+    int size() {
+        return size;
+    }
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable V get(final long key) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+            i = (i + 1) & (keys.length - 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return The previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable V put(final long key, @NotNull final V value) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & (keys.length - 1);
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return The removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable V remove(final long key) {
+        final int mask = keys.length - 1;
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                final V previous = (V) values[i];
+                shiftBack(i);
+                size--;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Fills the gap left by a removed entry by moving back any later entries in the same probe sequence, so that lookups never stop early
+     */
+    private void shiftBack(int gap) {
+        final int mask = keys.length - 1;
+        int i = (gap + 1) & mask;
+        while (values[i] != null) {
+            final int ideal = slot(keys[i]);
+            // Move the entry if the gap lies cyclically between its ideal slot and its current slot
+            final boolean movable = gap <= i ? (ideal <= gap || ideal > i) : (ideal <= gap && ideal > i);
+            if (movable) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void resize(final int capacity) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull final EntryConsumer<V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
@@ -3,11 +3,20 @@ package org.metamechanists.displaymodellib.models;
 import dev.sefiraat.sefilib.entity.display.DisplayGroup;
 import lombok.Getter;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
 import org.metamechanists.displaymodellib.models.components.ModelComponent;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplayTracker;
+import org.metamechanists.displaymodellib.virtual.VirtualModel;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 
 /**
@@ -16,20 +25,64 @@ import java.util.Map;
 @Getter
 @SuppressWarnings("unused")
 public class ModelBuilder {
+    public static final double DEFAULT_LOD_HYSTERESIS = 2;
     private final Map<String, ModelComponent> components;
+    private final Map<String, ModelGroup> groups;
+    private final NavigableMap<Double, ModelBuilder> levelsOfDetail;
+    private double lodHysteresis = DEFAULT_LOD_HYSTERESIS;
 
     public ModelBuilder() {
          this.components = new HashMap<>();
+         this.groups = new HashMap<>();
+         this.levelsOfDetail = new TreeMap<>();
     }
 
     public ModelBuilder(@NotNull final ModelBuilder other) {
         this.components = new HashMap<>(other.components);
+        this.groups = new HashMap<>(other.groups);
+        this.levelsOfDetail = new TreeMap<>(other.levelsOfDetail);
+        this.lodHysteresis = other.lodHysteresis;
     }
 
     public ModelBuilder add(@NotNull final String name, @NotNull final ModelComponent component) {
         components.put(name, component);
         return this;
     }
+    /**
+     * Adds a group of components which share a transformation. The names of the group's displays are prefixed with the group's name
+     */
+    public ModelBuilder add(@NotNull final String name, @NotNull final ModelGroup group) {
+        group.attach(name, null);
+        groups.put(name, group);
+        return this;
+    }
+
+    /**
+     * Adds a simpler version of the model, which is shown instead of this one by a {@link ModelLodController} when the nearest player is at least the given distance away
+     * This model is always used below the smallest distance
+     */
+    public ModelBuilder lod(final double distance, @NotNull final ModelBuilder level) {
+        if (distance <= 0) {
+            throw new IllegalArgumentException("Level of detail distance must be positive");
+        }
+        levelsOfDetail.put(distance, level);
+        return this;
+    }
+    /**
+     * Sets how far past a level of detail's distance a player must move before the level is switched, which stops models switching back and forth when a player stands near the boundary
+     */
+    public ModelBuilder lodHysteresis(final double hysteresis) {
+        this.lodHysteresis = hysteresis;
+        return this;
+    }
+
+    /**
+     * Visits every component in the model, including those in groups
+     */
+    public void forEachComponent(@NotNull final ComponentVisitor visitor) {
+        components.forEach((name, component) -> visitor.visit(name, component, component.getMatrixView()));
+        groups.values().forEach(group -> group.forEachComponent(visitor));
+    }
 
     /**
      * Creates all the components and adds them to a displaygroup
@@ -40,6 +93,7 @@ public class ModelBuilder {
     public DisplayGroup buildAtLocation(@NotNull final Location center) {
         final DisplayGroup group = new DisplayGroup(center.clone(), 0, 0);
         components.forEach((name, component) -> group.addDisplay(name, component.build(center.clone())));
+        groups.values().forEach(modelGroup -> modelGroup.build(group, center));
         return group;
     }
     /**
@@ -50,7 +104,10 @@ public class ModelBuilder {
      */
     public DisplayGroup buildAtBlockCenter(@NotNull final Location blockLocation) {
         final DisplayGroup group = new DisplayGroup(blockLocation.clone(), 0, 0);
-        components.forEach((name, component) -> group.addDisplay(name, component.build(blockLocation.clone().add(0.5, 0.5, 0.5))));
+        final Location center = blockLocation.clone().add(0.5, 0.5, 0.5);
+        components.forEach((name, component) -> group.addDisplay(name, component.build(center.clone())));
+        groups.values().forEach(modelGroup -> modelGroup.build(group, center));
+        ModelRegistry.global().register(blockLocation, group);
         return group;
     }
     /**
@@ -62,6 +119,143 @@ public class ModelBuilder {
     public DisplayGroup buildAtDisplayGroup(@NotNull final DisplayGroup group) {
         final Location center = group.getLocation();
         components.forEach((name, component) -> group.addDisplay(name, component.build(center.clone())));
+        groups.values().forEach(modelGroup -> modelGroup.build(group, center));
+        return group;
+    }
+
+    /**
+     * Creates all the components, reusing parked displays from the pool where possible, and adds them to a displaygroup
+     * The components are build with all coordinates relative to 'center'
+     * @param center The center location of the model
+     * @param pool The pool to take displays from. Park the group's displays in the pool with {@link DisplayPool#park(DisplayGroup)} when the model is removed
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtLocation(@NotNull final Location center, @NotNull final DisplayPool pool) {
+        final DisplayGroup group = new DisplayGroup(center.clone(), 0, 0);
+        forEachComponent((name, component, matrix) -> group.addDisplay(name, component.getMain().copy().transformation(new Matrix4f(matrix)).build(center.clone(), pool)));
         return group;
     }
+    /**
+     * Creates all the components, reusing parked displays from the pool where possible, and adds them to a displaygroup
+     * The components are build with all coordinates relative to 'blockLocation'
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @param pool The pool to take displays from. Park the group's displays in the pool with {@link DisplayPool#park(DisplayGroup)} when the model is removed
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtBlockCenter(@NotNull final Location blockLocation, @NotNull final DisplayPool pool) {
+        final DisplayGroup group = new DisplayGroup(blockLocation.clone(), 0, 0);
+        final Location center = blockLocation.clone().add(0.5, 0.5, 0.5);
+        forEachComponent((name, component, matrix) -> group.addDisplay(name, component.getMain().copy().transformation(new Matrix4f(matrix)).build(center.clone(), pool)));
+        ModelRegistry.global().register(blockLocation, group);
+        return group;
+    }
+
+    /**
+     * Queues all the components to be spawned over the next few ticks, and adds them to a displaygroup as they are spawned
+     * The components are build with all coordinates relative to 'center'
+     * @param center The center location of the model
+     * @param scheduler The scheduler to spawn the components with
+     * @return A future completed with the display group once all the components have been spawned
+     */
+    public CompletableFuture<DisplayGroup> buildAtLocation(@NotNull final Location center, @NotNull final ModelSpawnScheduler scheduler) {
+        return scheduler.schedule(new DisplayGroup(center.clone(), 0, 0), center, this);
+    }
+    /**
+     * Queues all the components to be spawned over the next few ticks, and adds them to a displaygroup as they are spawned
+     * The components are build with all coordinates relative to 'blockLocation'
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @param scheduler The scheduler to spawn the components with
+     * @return A future completed with the display group once all the components have been spawned
+     */
+    public CompletableFuture<DisplayGroup> buildAtBlockCenter(@NotNull final Location blockLocation, @NotNull final ModelSpawnScheduler scheduler) {
+        final DisplayGroup group = new DisplayGroup(blockLocation.clone(), 0, 0);
+        // Registered straight away, so that the block is claimed while the components are still being spawned
+        ModelRegistry.global().register(blockLocation, group);
+        final CompletableFuture<DisplayGroup> future = scheduler.schedule(group, blockLocation.clone().add(0.5, 0.5, 0.5), this);
+        // A model which is never completed should not keep its block claimed
+        future.whenComplete((built, e) -> {
+            if (e != null) {
+                ModelRegistry.global().remove(blockLocation, group);
+            }
+        });
+        return future;
+    }
+    /**
+     * Queues all the components to be spawned over the next few ticks, and adds them to the given displaygroup as they are spawned
+     * The components are build with all coordinates relative to 'group#getLocation'
+     * @param group The display group to build with
+     * @param scheduler The scheduler to spawn the components with
+     * @return A future completed with the display group once all the components have been spawned
+     */
+    public CompletableFuture<DisplayGroup> buildAtDisplayGroup(@NotNull final DisplayGroup group, @NotNull final ModelSpawnScheduler scheduler) {
+        return scheduler.schedule(group, group.getLocation(), this);
+    }
+
+    /**
+     * Creates all the components as virtual displays, which only exist on the clients they are sent to
+     * The model must be tracked by a {@link VirtualDisplayTracker} to be sent to players
+     * @param center The center location of the model
+     * @return The virtual model containing all the components
+     */
+    public VirtualModel buildVirtual(@NotNull final Location center) {
+        final VirtualModel model = new VirtualModel(center);
+        forEachComponent((name, component, matrix) -> model.addDisplay(name, component.getMain().copy().transformation(new Matrix4f(matrix)).buildVirtual(center)));
+        return model;
+    }
+
+    /**
+     * Copies the model's components and group transformations on the calling thread, then calculates every matrix and display property on the given executor
+     * Only the Bukkit calls are left for the main thread
+     */
+    public CompletableFuture<PreparedModel> prepare(@NotNull final Executor executor) {
+        return PreparedModel.prepare(this, executor);
+    }
+
+    /**
+     * Calculates a small set of interaction hitboxes which cover the model's block and item displays
+     * @param tolerance The largest volume (in blocks cubed) of empty space that merging two hitboxes may add
+     */
+    public ModelHitboxes fitHitboxes(final double tolerance) {
+        return HitboxFitter.fit(this, tolerance);
+    }
+
+    /**
+     * Compiles the model into an immutable template, which can be instanced many times without recalculating any matrices
+     * Later changes to the model are not reflected in the template
+     */
+    public ModelTemplate compile() {
+        return ModelTemplate.compile(this);
+    }
+
+    /**
+     * Replaces cuboids with identical display properties which together form an exact box with a single cuboid
+     * @return The number of displays saved
+     */
+    public int mergeCuboids() {
+        return CuboidMerger.merge(this);
+    }
+
+    /**
+     * Removes opaque cuboids which are completely enclosed by other opaque cuboids, using {@link Material#isOccluding()} to decide what is opaque
+     * Use a {@link HiddenComponentCuller} directly to override the opacity of specific materials
+     * @return A report of the components which were removed
+     */
+    public HiddenComponentCuller.Report cullHiddenComponents() {
+        return new HiddenComponentCuller().cull(this);
+    }
+
+    /**
+     * Precompiles the model facing each of the four cardinal directions, so that it can be placed rotated without recalculating any matrices
+     * Later changes to component transformations are not reflected in the compiled model
+     */
+    public OrientedModel compileCardinalOrientations() {
+        return OrientedModel.cardinal(this);
+    }
+    /**
+     * Precompiles the model in all 24 orientations of a cube, so that it can be placed rotated without recalculating any matrices
+     * Later changes to component transformations are not reflected in the compiled model
+     */
+    public OrientedModel compileAllOrientations() {
+        return OrientedModel.allOrientations(this);
+    }
 }
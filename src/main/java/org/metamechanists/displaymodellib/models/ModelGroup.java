@@ -0,0 +1,241 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaterniond;
+import org.joml.Vector3d;
+import org.joml.Vector3f;
+import org.metamechanists.displaymodellib.models.components.ModelComponent;
+import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A set of components and nested groups which share a transformation, for example a turbine hub and its blades
+ * Each group caches its world matrix (its parent's world matrix multiplied by its own), and only recalculates it when the group or one of its ancestors changes
+ * The final matrix of each component is cached in the same way, and only recalculated when the component or the group's world matrix changes
+ * Displays are named by joining the group names and the component name with {@link #SEPARATOR}, eg "hub.blade1"
+ */
+@Getter
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelGroup {
+    public static final String SEPARATOR = ".";
+
+    // A component's final matrix, and what it was calculated from
+    private static final class CachedMatrix {
+        private final Matrix4f matrix = new Matrix4f();
+        private ModelComponent component;
+        private int componentVersion;
+        private int worldVersion = -1;
+    }
+
+    private final Map<String, ModelComponent> components;
+    private final Map<String, ModelGroup> groups;
+    private TransformationMatrixBuilder matrixBuilder;
+    @Getter(AccessLevel.NONE)
+    private ModelGroup parent;
+    @Getter(AccessLevel.NONE)
+    private String name;
+
+    @Getter(AccessLevel.NONE)
+    private final Matrix4f worldMatrix = new Matrix4f();
+    @Getter(AccessLevel.NONE)
+    private final Map<String, CachedMatrix> componentMatrices = new HashMap<>();
+    // Incremented every time the world matrix changes, so that children know to recalculate theirs
+    @Getter(AccessLevel.NONE)
+    private int worldVersion;
+    @Getter(AccessLevel.NONE)
+    private TransformationMatrixBuilder seenMatrixBuilder;
+    @Getter(AccessLevel.NONE)
+    private int seenMatrixBuilderVersion = -1;
+    @Getter(AccessLevel.NONE)
+    private int seenParentWorldVersion = -1;
+
+    public ModelGroup() {
+        this.components = new LinkedHashMap<>();
+        this.groups = new LinkedHashMap<>();
+        this.matrixBuilder = new TransformationMatrixBuilder();
+    }
+
+    public ModelGroup add(@NotNull final String name, @NotNull final ModelComponent component) {
+        components.put(name, component);
+        return this;
+    }
+    public ModelGroup add(@NotNull final String name, @NotNull final ModelGroup group) {
+        group.attach(name, this);
+        groups.put(name, group);
+        return this;
+    }
+
+    void attach(@NotNull final String name, final ModelGroup parent) {
+        if (this.parent != null || this.name != null) {
+            throw new IllegalArgumentException("Group has already been added to a model");
+        }
+        this.name = name;
+        this.parent = parent;
+    }
+
+    /**
+     * Replaces the group's own transformation, which is useful for animating a joint without rebuilding anything
+     */
+    public ModelGroup transformation(@NotNull final TransformationMatrixBuilder matrixBuilder) {
+        this.matrixBuilder = matrixBuilder;
+        return this;
+    }
+
+    /**
+     * Translates the group by the given vector
+     */
+    public ModelGroup translate(@NotNull final Vector3f translation) {
+        matrixBuilder.translate(translation);
+        return this;
+    }
+    /**
+     * Translates the group by the given vector
+     */
+    public ModelGroup translate(final float x, final float y, final float z) {
+        return translate(new Vector3f(x, y, z));
+    }
+    /**
+     * Rotates the group by euler angles in radians
+     */
+    public ModelGroup rotate(@NotNull final Vector3d rotation) {
+        matrixBuilder.rotate(rotation);
+        return this;
+    }
+    /**
+     * Rotates the group by a quaternion
+     */
+    public ModelGroup rotate(@NotNull final Quaterniond rotation) {
+        matrixBuilder.rotate(rotation);
+        return this;
+    }
+    /**
+     * Rotates the group by euler angles in radians
+     */
+    public ModelGroup rotate(final double x, final double y, final double z) {
+        return rotate(new Vector3d(x, y, z));
+    }
+    /**
+     * Scales the group on each axis
+     */
+    public ModelGroup scale(@NotNull final Vector3f scale) {
+        matrixBuilder.scale(scale);
+        return this;
+    }
+    /**
+     * Scales the group on each axis
+     */
+    public ModelGroup scale(final float x, final float y, final float z) {
+        return scale(new Vector3f(x, y, z));
+    }
+    /**
+     * Scales the group on all axes
+     */
+    public ModelGroup scale(final float scale) {
+        return scale(new Vector3f(scale));
+    }
+
+    private @NotNull String getPath() {
+        if (parent == null) {
+            return name == null ? "" : name;
+        }
+        final String parentPath = parent.getPath();
+        return parentPath.isEmpty() ? name : parentPath + SEPARATOR + name;
+    }
+    private @NotNull String getDisplayName(@NotNull final String path, @NotNull final String componentName) {
+        return path.isEmpty() ? componentName : path + SEPARATOR + componentName;
+    }
+
+    /**
+     * @return The group's transformation combined with those of all its ancestors. Only recalculated if something has changed since the last call
+     */
+    public @NotNull Matrix4fc getWorldMatrix() {
+        final int parentWorldVersion;
+        if (parent == null) {
+            parentWorldVersion = 0;
+        } else {
+            parent.getWorldMatrix();
+            parentWorldVersion = parent.worldVersion;
+        }
+
+        if (seenMatrixBuilder != matrixBuilder
+                || seenMatrixBuilderVersion != matrixBuilder.getVersion()
+                || seenParentWorldVersion != parentWorldVersion) {
+            if (parent == null) {
+                worldMatrix.identity();
+            } else {
+                worldMatrix.set(parent.worldMatrix);
+            }
+            worldMatrix.mul(matrixBuilder.buildForItemDisplay());
+            seenMatrixBuilder = matrixBuilder;
+            seenMatrixBuilderVersion = matrixBuilder.getVersion();
+            seenParentWorldVersion = parentWorldVersion;
+            worldVersion++;
+        }
+
+        return worldMatrix;
+    }
+
+    /**
+     * @return The final matrix of the given component in this group, including the transformations of the group and its ancestors. Only recalculated if something has changed since the last call
+     */
+    public @NotNull Matrix4fc getComponentMatrix(@NotNull final String name) {
+        final ModelComponent component = components.get(name);
+        if (component == null) {
+            throw new IllegalArgumentException("Group has no component named " + name);
+        }
+        final Matrix4fc world = getWorldMatrix();
+        final CachedMatrix cached = componentMatrices.computeIfAbsent(name, key -> new CachedMatrix());
+        if (cached.component != component
+                || cached.componentVersion != component.getMatrixVersion()
+                || cached.worldVersion != worldVersion) {
+            cached.matrix.set(world).mul(component.getMatrixView());
+            cached.component = component;
+            cached.componentVersion = component.getMatrixVersion();
+            cached.worldVersion = worldVersion;
+        }
+        return cached.matrix;
+    }
+
+    /**
+     * Visits every component in this group and its nested groups
+     */
+    public void forEachComponent(@NotNull final ComponentVisitor visitor) {
+        final String path = getPath();
+        components.forEach((componentName, component) -> visitor.visit(getDisplayName(path, componentName), component, getComponentMatrix(componentName)));
+        groups.values().forEach(group -> group.forEachComponent(visitor));
+    }
+
+    /**
+     * Creates all the components in this group and its nested groups, and adds them to the given displaygroup
+     * @param origin The location the model is built at
+     */
+    public void build(@NotNull final DisplayGroup displayGroup, @NotNull final Location origin) {
+        forEachComponent((displayName, component, matrix) ->
+                displayGroup.addDisplay(displayName, component.getMain().copy().transformation(new Matrix4f(matrix)).build(origin.clone())));
+    }
+
+    /**
+     * Updates the matrices of the displays belonging to this group and its nested groups, and nothing else
+     * Call this on the group that moved, so that animating one joint only costs as much as the components attached to it
+     */
+    public void updateMatrices(@NotNull final DisplayGroup displayGroup) {
+        final Map<String, Display> displays = displayGroup.getDisplays();
+        forEachComponent((displayName, component, matrix) -> {
+            final Display display = displays.get(displayName);
+            if (display != null) {
+                display.setTransformationMatrix(new Matrix4f(matrix));
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Interaction;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.metamechanists.displaymodellib.builders.InteractionBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Interaction hitboxes calculated by {@link HitboxFitter}, relative to the center of the model
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelHitboxes {
+    private final List<BoundingBox> boxes;
+
+    ModelHitboxes(@NotNull final List<BoundingBox> boxes) {
+        this.boxes = boxes;
+    }
+
+    /**
+     * @return A copy of each hitbox, relative to the center of the model
+     */
+    public @NotNull List<BoundingBox> getBoxes() {
+        final List<BoundingBox> copies = new ArrayList<>(boxes.size());
+        boxes.forEach(box -> copies.add(box.clone()));
+        return copies;
+    }
+    public int size() {
+        return boxes.size();
+    }
+
+    /**
+     * Creates an interaction for each hitbox
+     * @param center The center location of the model
+     * @return The interactions, in the same order as {@link #getBoxes()}
+     */
+    public @NotNull List<Interaction> buildAtLocation(@NotNull final Location center) {
+        final List<Interaction> interactions = new ArrayList<>(boxes.size());
+        for (final BoundingBox box : boxes) {
+            interactions.add(new InteractionBuilder()
+                    .width((float) box.getWidthX())
+                    .height((float) box.getHeight())
+                    .build(center.clone().add(box.getCenter())));
+        }
+        return interactions;
+    }
+    /**
+     * Creates an interaction for each hitbox
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @return The interactions, in the same order as {@link #getBoxes()}
+     */
+    public @NotNull List<Interaction> buildAtBlockCenter(@NotNull final Location blockLocation) {
+        return buildAtLocation(blockLocation.clone().add(0.5, 0.5, 0.5));
+    }
+}
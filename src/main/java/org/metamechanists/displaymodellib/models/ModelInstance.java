@@ -0,0 +1,96 @@
+package org.metamechanists.displaymodellib.models;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.bukkit.entity.Display;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+
+/**
+ * A model built from a {@link ModelTemplate}, whose displays are tagged so that they can be found again after a restart or chunk reload
+ * Displays are looked up by the same index as the template's components. A display is null while its chunk is unloaded
+ */
+@Getter
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelInstance {
+    private final long id;
+    private final ModelTemplate template;
+    @Getter(AccessLevel.NONE)
+    private final Display[] displays;
+
+    ModelInstance(final long id, @NotNull final ModelTemplate template) {
+        this.id = id;
+        this.template = template;
+        this.displays = new Display[template.size()];
+    }
+
+    public @Nullable Display getDisplay(final int index) {
+        return displays[index];
+    }
+    public @Nullable Display getDisplay(@NotNull final String name) {
+        final int index = template.getIndex(name);
+        return index == -1 ? null : displays[index];
+    }
+
+    /**
+     * @return Whether every component's display is currently loaded
+     */
+    public boolean isLoaded() {
+        for (final Display display : displays) {
+            if (display == null || !display.isValid()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Updates every loaded display with the template's properties
+     */
+    public void update() {
+        for (int i = 0; i < displays.length; i++) {
+            if (displays[i] != null) {
+                template.getBuilderView(i).update(displays[i]);
+            }
+        }
+    }
+    /**
+     * Removes every loaded display. Displays in unloaded chunks are not affected
+     */
+    public void remove() {
+        for (int i = 0; i < displays.length; i++) {
+            if (displays[i] != null) {
+                displays[i].remove();
+                displays[i] = null;
+            }
+        }
+    }
+
+    /**
+     * @return Whether the index is a component of the template
+     */
+    boolean bind(final int index, @NotNull final Display display) {
+        if (index < 0 || index >= displays.length) {
+            return false;
+        }
+        displays[index] = display;
+        return true;
+    }
+    void unbind(final int index, @NotNull final Display display) {
+        if (index >= 0 && index < displays.length && displays[index] == display) {
+            displays[index] = null;
+        }
+    }
+    /**
+     * @return Whether none of the displays are bound
+     */
+    boolean isUnloaded() {
+        for (final Display display : displays) {
+            if (display != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+
+/**
+ * Keeps track of model instances, and reattaches their displays when the chunks containing them load, without respawning anything
+ * The index is filled lazily: an instance is only known once it has been spawned or one of its chunks has loaded, and is forgotten again once all of its displays have unloaded
+ * The plugin using this is responsible for remembering which template each instance ID uses, and providing it through the resolver
+ * Only models spawned through {@link #spawn(ModelTemplate, Location)} can be rebound; compile a {@link ModelBuilder} with {@link ModelTemplate#compile(ModelBuilder)} to spawn it here
+ * Register this as a listener for rebinding to work. Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelInstanceIndex implements Listener {
+    private final LongFunction<ModelTemplate> templateResolver;
+    private final OrphanPolicy orphanPolicy;
+    private final Map<Long, ModelInstance> instances = new HashMap<>();
+    private final Map<UUID, Map<Long, Set<ModelInstance>>> chunks = new HashMap<>();
+
+    /**
+     * What to do with a loaded display whose instance no longer exists, or whose component is not in the instance's template
+     */
+    public enum OrphanPolicy {
+        /**
+         * Removes the display from the world
+         */
+        REMOVE,
+        /**
+         * Leaves the display in the world, but clears its tags so it is not checked again
+         */
+        UNTAG,
+        /**
+         * Leaves the display as it is
+         */
+        KEEP
+    }
+
+    /**
+     * Removes orphaned displays, see {@link #ModelInstanceIndex(LongFunction, OrphanPolicy)}
+     */
+    public ModelInstanceIndex(@NotNull final LongFunction<ModelTemplate> templateResolver) {
+        this(templateResolver, OrphanPolicy.REMOVE);
+    }
+    /**
+     * @param templateResolver Returns the template of the instance with the given ID, or null if the instance no longer exists (in which case its displays are orphans)
+     * @param orphanPolicy What to do with the displays of instances which no longer exist
+     */
+    public ModelInstanceIndex(@NotNull final LongFunction<ModelTemplate> templateResolver, @NotNull final OrphanPolicy orphanPolicy) {
+        this.templateResolver = templateResolver;
+        this.orphanPolicy = orphanPolicy;
+    }
+
+    private @NotNull Set<ModelInstance> getChunk(@NotNull final Location location) {
+        return chunks.computeIfAbsent(location.getWorld().getUID(), key -> new HashMap<>())
+                .computeIfAbsent(Chunk.getChunkKey(location), key -> new LinkedHashSet<>());
+    }
+
+    private long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == ModelInstanceTags.NO_INSTANCE || instances.containsKey(id));
+        return id;
+    }
+
+    /**
+     * Creates all the components of the template, tagged so that they can be found again later
+     * @param center The center location of the model
+     */
+    public @NotNull ModelInstance spawn(@NotNull final ModelTemplate template, @NotNull final Location center) {
+        final ModelInstance instance = new ModelInstance(nextId(), template);
+        final Display[] displays = template.spawn(center);
+        for (int i = 0; i < displays.length; i++) {
+            ModelInstanceTags.tag(displays[i], instance.getId(), i);
+            instance.bind(i, displays[i]);
+            getChunk(displays[i].getLocation()).add(instance);
+        }
+        instances.put(instance.getId(), instance);
+        return instance;
+    }
+    /**
+     * Creates all the components of the template, tagged so that they can be found again later
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     */
+    public @NotNull ModelInstance spawnAtBlockCenter(@NotNull final ModelTemplate template, @NotNull final Location blockLocation) {
+        return spawn(template, blockLocation.clone().add(0.5, 0.5, 0.5));
+    }
+
+    /**
+     * @return The instance, or null if none of its displays are loaded
+     */
+    public @Nullable ModelInstance get(final long id) {
+        return instances.get(id);
+    }
+    /**
+     * @return The instances with at least one display in the chunk, as of the last time it was loaded
+     */
+    public @NotNull Set<ModelInstance> getInstances(@NotNull final Chunk chunk) {
+        final Map<Long, Set<ModelInstance>> worldChunks = chunks.get(chunk.getWorld().getUID());
+        final Set<ModelInstance> chunkInstances = worldChunks == null ? null : worldChunks.get(chunk.getChunkKey());
+        return chunkInstances == null ? Collections.emptySet() : Collections.unmodifiableSet(chunkInstances);
+    }
+
+    /**
+     * Removes every loaded display of the instance and forgets it
+     */
+    public void remove(@NotNull final ModelInstance instance) {
+        instance.remove();
+        instances.remove(instance.getId());
+        chunks.values().forEach(worldChunks -> worldChunks.values().forEach(chunkInstances -> chunkInstances.remove(instance)));
+    }
+
+    private void handleOrphan(@NotNull final Display display) {
+        switch (orphanPolicy) {
+            case REMOVE -> display.remove();
+            case UNTAG -> ModelInstanceTags.untag(display);
+            case KEEP -> {}
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(@NotNull final EntitiesLoadEvent event) {
+        for (final Entity entity : event.getEntities()) {
+            if (!(entity instanceof final Display display)) {
+                continue;
+            }
+            final long id = ModelInstanceTags.getInstanceId(display);
+            if (id == ModelInstanceTags.NO_INSTANCE) {
+                continue;
+            }
+            ModelInstance instance = instances.get(id);
+            if (instance == null) {
+                final ModelTemplate template = templateResolver.apply(id);
+                if (template == null) {
+                    handleOrphan(display);
+                    continue;
+                }
+                instance = new ModelInstance(id, template);
+                instances.put(id, instance);
+            }
+            if (!instance.bind(ModelInstanceTags.getComponentIndex(display), display)) {
+                // The template no longer has the component, for example because the model has changed since the display was spawned
+                handleOrphan(display);
+                if (instance.isUnloaded()) {
+                    instances.remove(id);
+                }
+                continue;
+            }
+            getChunk(display.getLocation()).add(instance);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(@NotNull final EntitiesUnloadEvent event) {
+        for (final Entity entity : event.getEntities()) {
+            if (!(entity instanceof final Display display)) {
+                continue;
+            }
+            final ModelInstance instance = instances.get(ModelInstanceTags.getInstanceId(display));
+            if (instance == null) {
+                continue;
+            }
+            instance.unbind(ModelInstanceTags.getComponentIndex(display), display);
+            if (instance.isUnloaded()) {
+                // Recreated through the resolver if one of its chunks loads again
+                instances.remove(instance.getId());
+            }
+        }
+        final Map<Long, Set<ModelInstance>> worldChunks = chunks.get(event.getWorld().getUID());
+        if (worldChunks != null) {
+            worldChunks.remove(event.getChunk().getChunkKey());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.metamechanists.displaymodellib.models;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Entity;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * Stores which model instance a display belongs to, and which component of the model it is, in the display's persistent data
+ * This survives restarts and chunk reloads, so displays can be matched back up with their model without scanning or respawning them
+ * Only displays spawned through a {@link ModelInstanceIndex} are tagged, since the component index is a slot in a {@link ModelTemplate}; displays built by {@link ModelBuilder} and the other builders carry no tags
+ * Tags are cleared when a display is parked in a {@link org.metamechanists.displaymodellib.builders.DisplayPool}, and tagged displays whose instance no longer exists are handled by the index's {@link ModelInstanceIndex.OrphanPolicy}
+ */
+@UtilityClass
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelInstanceTags {
+    public final long NO_INSTANCE = 0;
+    public final NamespacedKey INSTANCE_KEY = new NamespacedKey("displaymodellib", "instance");
+    public final NamespacedKey COMPONENT_KEY = new NamespacedKey("displaymodellib", "component");
+
+    public void tag(@NotNull final Entity entity, final long instanceId, final int componentIndex) {
+        final PersistentDataContainer container = entity.getPersistentDataContainer();
+        container.set(INSTANCE_KEY, PersistentDataType.LONG, instanceId);
+        container.set(COMPONENT_KEY, PersistentDataType.INTEGER, componentIndex);
+    }
+    public void untag(@NotNull final Entity entity) {
+        final PersistentDataContainer container = entity.getPersistentDataContainer();
+        container.remove(INSTANCE_KEY);
+        container.remove(COMPONENT_KEY);
+    }
+
+    /**
+     * @return The ID of the model instance the entity belongs to, or {@link #NO_INSTANCE} if it is not part of one
+     */
+    public long getInstanceId(@NotNull final Entity entity) {
+        return entity.getPersistentDataContainer().getOrDefault(INSTANCE_KEY, PersistentDataType.LONG, NO_INSTANCE);
+    }
+    /**
+     * @return The index of the component in the model's {@link ModelTemplate}, or -1 if it is not part of a model instance
+     */
+    public int getComponentIndex(@NotNull final Entity entity) {
+        return entity.getPersistentDataContainer().getOrDefault(COMPONENT_KEY, PersistentDataType.INTEGER, -1);
+    }
+}
@@ -0,0 +1,162 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Switches models between their levels of detail (see {@link ModelBuilder#lod(double, ModelBuilder)}) based on the distance to the nearest player
+ * When a level changes, the new level is built before the old one is removed, so the model never disappears
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelLodController {
+    public static final long DEFAULT_PERIOD_TICKS = 10;
+    private final Set<Instance> instances = new LinkedHashSet<>();
+    private BukkitTask task;
+
+    /**
+     * A model placed at a location, currently showing one of its levels of detail
+     */
+    @Getter
+    public static final class Instance {
+        private final ModelBuilder model;
+        private final Location center;
+        private final double[] distances;
+        private final ModelBuilder[] levels;
+        private int level = -1;
+        private DisplayGroup group;
+
+        private Instance(@NotNull final ModelBuilder model, @NotNull final Location center) {
+            this.model = model;
+            this.center = center.clone();
+            this.distances = new double[model.getLevelsOfDetail().size() + 1];
+            this.levels = new ModelBuilder[distances.length];
+            levels[0] = model;
+            int i = 1;
+            for (final Map.Entry<Double, ModelBuilder> entry : model.getLevelsOfDetail().entrySet()) {
+                distances[i] = entry.getKey();
+                levels[i] = entry.getValue();
+                i++;
+            }
+        }
+
+        private int getTargetLevel(final double distance) {
+            int target = 0;
+            while (target + 1 < distances.length && distance >= distances[target + 1]) {
+                target++;
+            }
+            return target;
+        }
+
+        private boolean shouldSwitch(final int target, final double distance) {
+            if (level == -1) {
+                return true;
+            }
+            final double hysteresis = model.getLodHysteresis();
+            if (target > level) {
+                return distance >= distances[level + 1] + hysteresis;
+            }
+            if (target < level) {
+                return distance < distances[level] - hysteresis;
+            }
+            return false;
+        }
+
+        private void update(final double distance) {
+            final int target = getTargetLevel(distance);
+            if (!shouldSwitch(target, distance)) {
+                return;
+            }
+            final DisplayGroup oldGroup = group;
+            group = levels[target].buildAtLocation(center);
+            level = target;
+            if (oldGroup != null) {
+                // Also removes the group's parent interaction, which would otherwise be left in the world
+                oldGroup.remove();
+            }
+        }
+
+        private void remove() {
+            if (group != null) {
+                group.remove();
+                group = null;
+            }
+        }
+    }
+
+    private static double distanceToNearestPlayer(@NotNull final Location location) {
+        double nearest = Double.MAX_VALUE;
+        for (final Player player : location.getWorld().getPlayers()) {
+            nearest = Math.min(nearest, player.getLocation().distanceSquared(location));
+        }
+        return Math.sqrt(nearest);
+    }
+
+    /**
+     * Builds the level of detail appropriate for the nearest player, and keeps it updated until {@link #untrack(Instance)} is called
+     * @param center The center location of the model
+     */
+    public @NotNull Instance track(@NotNull final ModelBuilder model, @NotNull final Location center) {
+        final Instance instance = new Instance(model, center);
+        instance.update(distanceToNearestPlayer(instance.center));
+        instances.add(instance);
+        return instance;
+    }
+    /**
+     * Stops switching the model's level of detail, and removes its displays and display group
+     */
+    public void untrack(@NotNull final Instance instance) {
+        if (instances.remove(instance)) {
+            instance.remove();
+        }
+    }
+    public int getTrackedModels() {
+        return instances.size();
+    }
+
+    /**
+     * Calls {@link #tick()} every {@link #DEFAULT_PERIOD_TICKS} ticks until {@link #stop()} is called
+     */
+    public void start(@NotNull final Plugin plugin) {
+        start(plugin, DEFAULT_PERIOD_TICKS);
+    }
+    /**
+     * Calls {@link #tick()} every periodTicks ticks until {@link #stop()} is called
+     */
+    public void start(@NotNull final Plugin plugin, final long periodTicks) {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0, periodTicks);
+        }
+    }
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Switches the level of detail of every tracked model which has moved far enough past a level's distance
+     */
+    public void tick() {
+        final List<Instance> snapshot = new ArrayList<>(instances);
+        for (final Instance instance : snapshot) {
+            if (instance.center.isWorldLoaded()) {
+                instance.update(distanceToNearestPlayer(instance.center));
+            }
+        }
+    }
+}
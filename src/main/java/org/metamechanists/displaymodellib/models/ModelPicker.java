@@ -0,0 +1,279 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Transformation;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Intersectionf;
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * Finds which component of a model a ray hits, by testing the ray against the oriented bounding box of each display
+ * This gives per-component click accuracy without spawning interaction entities, for example by picking from a player's eye when they click
+ * Models are found through a {@link ModelRegistry}, then rejected cheaply with a bounding sphere before their displays are tested
+ * Text displays are ignored, since they have no fixed size, and billboarded displays are treated as if they were fixed
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelPicker {
+    public static final double DEFAULT_MAX_MODEL_RADIUS = 4;
+    private final ModelRegistry registry;
+    private final double maxModelRadius;
+    private final Map<DisplayGroup, Sphere> spheres = new WeakHashMap<>();
+
+    private static final class Sphere {
+        private final double x;
+        private final double y;
+        private final double z;
+        private final double radius;
+
+        private Sphere(final double x, final double y, final double z, final double radius) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.radius = radius;
+        }
+    }
+
+    /**
+     * The nearest component hit by a ray
+     */
+    @Getter
+    public static final class Hit {
+        private final DisplayGroup group;
+        private final String name;
+        private final Display display;
+        private final Location position;
+        private final double distance;
+
+        private Hit(@NotNull final DisplayGroup group, @NotNull final String name, @NotNull final Display display,
+                    @NotNull final Location position, final double distance) {
+            this.group = group;
+            this.name = name;
+            this.display = display;
+            this.position = position;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * Picks from the models registered in {@link ModelRegistry#global()}
+     */
+    public ModelPicker() {
+        this(ModelRegistry.global(), DEFAULT_MAX_MODEL_RADIUS);
+    }
+    /**
+     * @param registry The registry to find models in
+     * @param maxModelRadius The furthest any part of a model extends from the center of the block it is registered at
+     */
+    public ModelPicker(@NotNull final ModelRegistry registry, final double maxModelRadius) {
+        this.registry = registry;
+        this.maxModelRadius = maxModelRadius;
+    }
+
+    /**
+     * Bounding spheres are cached, so this must be called after a model's displays are moved, transformed, added or removed
+     */
+    public void invalidate(@NotNull final DisplayGroup group) {
+        spheres.remove(group);
+    }
+    public void invalidateAll() {
+        spheres.clear();
+    }
+
+    /**
+     * @return The matrix which the display's transformation represents, ignoring the display's own yaw and pitch (which builders always set to zero)
+     */
+    private static @NotNull Matrix4f getMatrix(@NotNull final Display display) {
+        final Transformation transformation = display.getTransformation();
+        return new Matrix4f()
+                .translation(transformation.getTranslation())
+                .rotate(transformation.getLeftRotation())
+                .scale(transformation.getScale())
+                .rotate(transformation.getRightRotation());
+    }
+
+    /**
+     * Sets min and max to the local bounds of the display, in the same way as {@link HitboxFitter#getComponentBoxes(ModelBuilder)}
+     * @return False if the display cannot be picked
+     */
+    private static boolean getLocalBounds(@NotNull final Display display, @NotNull final Vector3f min, @NotNull final Vector3f max) {
+        if (display instanceof BlockDisplay) {
+            // Block displays are rendered from their corner
+            min.set(0, 0, 0);
+            max.set(1, 1, 1);
+            return true;
+        }
+        if (display instanceof ItemDisplay) {
+            // Item displays are rendered from their center
+            min.set(-0.5F, -0.5F, -0.5F);
+            max.set(0.5F, 0.5F, 0.5F);
+            return true;
+        }
+        return false;
+    }
+
+    private static @NotNull Sphere calculateSphere(@NotNull final DisplayGroup group) {
+        final Vector3f localMin = new Vector3f();
+        final Vector3f localMax = new Vector3f();
+        final Vector3f min = new Vector3f();
+        final Vector3f max = new Vector3f();
+        final Location origin = group.getLocation();
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double maxZ = Double.NEGATIVE_INFINITY;
+        for (final Display display : group.getDisplays().values()) {
+            if (!display.isValid() || !getLocalBounds(display, localMin, localMax)) {
+                continue;
+            }
+            getMatrix(display).transformAab(localMin, localMax, min, max);
+            // Relative to the group, so that the bounds stay precise far from the world origin
+            final Location location = display.getLocation();
+            final double offsetX = location.getX() - origin.getX();
+            final double offsetY = location.getY() - origin.getY();
+            final double offsetZ = location.getZ() - origin.getZ();
+            minX = Math.min(minX, offsetX + min.x);
+            minY = Math.min(minY, offsetY + min.y);
+            minZ = Math.min(minZ, offsetZ + min.z);
+            maxX = Math.max(maxX, offsetX + max.x);
+            maxY = Math.max(maxY, offsetY + max.y);
+            maxZ = Math.max(maxZ, offsetZ + max.z);
+        }
+        if (minX > maxX) {
+            // Nothing in the group can be picked
+            return new Sphere(origin.getX(), origin.getY(), origin.getZ(), -1);
+        }
+        final double halfX = (maxX - minX) / 2;
+        final double halfY = (maxY - minY) / 2;
+        final double halfZ = (maxZ - minZ) / 2;
+        return new Sphere(
+                origin.getX() + minX + halfX,
+                origin.getY() + minY + halfY,
+                origin.getZ() + minZ + halfZ,
+                Math.sqrt(halfX*halfX + halfY*halfY + halfZ*halfZ));
+    }
+
+    /**
+     * @param direction Must be normalized
+     * @return Whether the ray, up to the given distance, passes through the sphere
+     */
+    private static boolean intersectsSphere(@NotNull final Sphere sphere, @NotNull final Location origin, @NotNull final Vector direction, final double maxDistance) {
+        if (sphere.radius < 0) {
+            return false;
+        }
+        final double toCenterX = sphere.x - origin.getX();
+        final double toCenterY = sphere.y - origin.getY();
+        final double toCenterZ = sphere.z - origin.getZ();
+        final double along = Math.max(0, Math.min(maxDistance, toCenterX*direction.getX() + toCenterY*direction.getY() + toCenterZ*direction.getZ()));
+        final double dx = toCenterX - direction.getX()*along;
+        final double dy = toCenterY - direction.getY()*along;
+        final double dz = toCenterZ - direction.getZ()*along;
+        return dx*dx + dy*dy + dz*dz <= sphere.radius*sphere.radius;
+    }
+
+    /**
+     * Tests the ray against a single model, without using the registry
+     * @param direction The direction of the ray, which does not need to be normalized
+     * @param maxDistance The furthest along the ray a hit may be
+     * @return The nearest hit, or null if the ray does not hit any component of the model
+     */
+    public @Nullable Hit pick(@NotNull final DisplayGroup group, @NotNull final Location origin, @NotNull final Vector direction, final double maxDistance) {
+        final Vector normalized = direction.clone().normalize();
+        final Sphere sphere = spheres.computeIfAbsent(group, ModelPicker::calculateSphere);
+        if (!intersectsSphere(sphere, origin, normalized, maxDistance)) {
+            return null;
+        }
+
+        final Vector3f localMin = new Vector3f();
+        final Vector3f localMax = new Vector3f();
+        final Vector3f localOrigin = new Vector3f();
+        final Vector3f localDirection = new Vector3f();
+        final Vector2f result = new Vector2f();
+        String bestName = null;
+        Display bestDisplay = null;
+        double bestDistance = maxDistance;
+        for (final Map.Entry<String, Display> entry : group.getDisplays().entrySet()) {
+            final Display display = entry.getValue();
+            if (!display.isValid() || !getLocalBounds(display, localMin, localMax)) {
+                continue;
+            }
+            final Matrix4f matrix = getMatrix(display);
+            if (Math.abs(matrix.determinant()) < 1.0E-9F) {
+                // Scaled to nothing, so it cannot be seen or hit
+                continue;
+            }
+            matrix.invert();
+            // Relative to the display, so that the maths stays precise far from the world origin
+            final Location location = display.getLocation();
+            matrix.transformPosition(
+                    (float) (origin.getX() - location.getX()),
+                    (float) (origin.getY() - location.getY()),
+                    (float) (origin.getZ() - location.getZ()),
+                    localOrigin);
+            // Not normalized after transforming, so that distances along the local ray are the same as along the world ray
+            matrix.transformDirection((float) normalized.getX(), (float) normalized.getY(), (float) normalized.getZ(), localDirection);
+            if (!Intersectionf.intersectRayAab(localOrigin, localDirection, localMin, localMax, result)) {
+                continue;
+            }
+            // A negative near distance means the ray starts inside the box
+            final double distance = Math.max(0, result.x);
+            if (distance <= bestDistance) {
+                bestName = entry.getKey();
+                bestDisplay = display;
+                bestDistance = distance;
+            }
+        }
+
+        if (bestDisplay == null) {
+            return null;
+        }
+        final Location position = origin.clone().add(normalized.multiply(bestDistance));
+        return new Hit(group, bestName, bestDisplay, position, bestDistance);
+    }
+
+    /**
+     * Tests the ray against every model in the registry which could be within range
+     * @param direction The direction of the ray, which does not need to be normalized
+     * @param maxDistance The furthest along the ray a hit may be
+     * @return The nearest hit, or null if the ray does not hit any component of any model
+     */
+    public @Nullable Hit pick(@NotNull final Location origin, @NotNull final Vector direction, final double maxDistance) {
+        final Vector normalized = direction.clone().normalize();
+        // Every point on the ray is within half its length of its midpoint, and every part of a model is within the max radius of its block
+        final Location midpoint = origin.clone().add(normalized.clone().multiply(maxDistance / 2));
+        final Hit[] best = new Hit[1];
+        registry.forEachInRadius(midpoint, maxDistance / 2 + maxModelRadius, (x, y, z, group) -> {
+            final double range = best[0] == null ? maxDistance : best[0].distance;
+            final Hit hit = pick(group, origin, normalized, range);
+            if (hit != null && (best[0] == null || hit.distance < best[0].distance)) {
+                best[0] = hit;
+            }
+        });
+        return best[0];
+    }
+    /**
+     * Tests the player's line of sight against every model in the registry which could be within range
+     * @param maxDistance The furthest from the player's eyes a hit may be
+     * @return The nearest hit, or null if the player is not looking at any component of any model
+     */
+    public @Nullable Hit pick(@NotNull final Player player, final double maxDistance) {
+        final Location eye = player.getEyeLocation();
+        return pick(eye, eye.getDirection(), maxDistance);
+    }
+}
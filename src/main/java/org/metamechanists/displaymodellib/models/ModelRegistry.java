@@ -0,0 +1,269 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Keeps track of where models have been built, by block, so that plugins do not need their own map of locations to display groups
+ * Blocks and chunks are packed into longs and stored in primitive keyed maps, so lookups by block are O(1) and do not allocate
+ * Models built at a block center (by {@link ModelBuilder}, {@link ModelTemplate}, {@link OrientedModel} or {@link PreparedModel}) are registered in {@link #global()} automatically
+ * Use {@link #removeAndDestroy(Location)} to remove a registered model, so that the entry does not outlive its displays
+ * Register the registry as a listener, so that the entries in a chunk are dropped when it unloads (registering {@link #global()} from several plugins is harmless)
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelRegistry implements Listener {
+    private static final ModelRegistry GLOBAL = new ModelRegistry();
+    private final Map<UUID, WorldEntries> worlds = new HashMap<>();
+
+    /**
+     * The block keys in a single chunk
+     */
+    private static final class ChunkEntries {
+        private long[] blocks = new long[4];
+        private int size;
+
+        private void add(final long block) {
+            if (size == blocks.length) {
+                blocks = Arrays.copyOf(blocks, size * 2);
+            }
+            blocks[size++] = block;
+        }
+        private void remove(final long block) {
+            for (int i = 0; i < size; i++) {
+                if (blocks[i] == block) {
+                    blocks[i] = blocks[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class WorldEntries {
+        private final LongObjectMap<DisplayGroup> blocks = new LongObjectMap<>();
+        private final LongObjectMap<ChunkEntries> chunks = new LongObjectMap<>();
+    }
+
+    /**
+     * @return The registry which models built at a block center are added to
+     */
+    public static @NotNull ModelRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Packs block coordinates into a long: 26 bits of X, 26 bits of Z and 12 bits of Y
+     */
+    public static long getBlockKey(final int x, final int y, final int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+    public static int getBlockX(final long key) {
+        return (int) (key >> 38);
+    }
+    public static int getBlockY(final long key) {
+        return (int) (key << 52 >> 52);
+    }
+    public static int getBlockZ(final long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    private static long getChunkKey(final long blockKey) {
+        return Chunk.getChunkKey(getBlockX(blockKey) >> 4, getBlockZ(blockKey) >> 4);
+    }
+
+    /**
+     * Registers the model at the block, replacing any model already registered there
+     * @return The model previously registered at the block, or null if there was none
+     */
+    public @Nullable DisplayGroup register(@NotNull final Location blockLocation, @NotNull final DisplayGroup group) {
+        final WorldEntries entries = worlds.computeIfAbsent(blockLocation.getWorld().getUID(), key -> new WorldEntries());
+        final long key = getBlockKey(blockLocation.getBlockX(), blockLocation.getBlockY(), blockLocation.getBlockZ());
+        final DisplayGroup previous = entries.blocks.put(key, group);
+        if (previous == null) {
+            final long chunkKey = getChunkKey(key);
+            ChunkEntries chunk = entries.chunks.get(chunkKey);
+            if (chunk == null) {
+                chunk = new ChunkEntries();
+                entries.chunks.put(chunkKey, chunk);
+            }
+            chunk.add(key);
+        }
+        return previous;
+    }
+
+    /**
+     * @return The model registered at the block, or null if there is none
+     */
+    public @Nullable DisplayGroup get(@NotNull final World world, final int x, final int y, final int z) {
+        final WorldEntries entries = worlds.get(world.getUID());
+        return entries == null ? null : entries.blocks.get(getBlockKey(x, y, z));
+    }
+    public @Nullable DisplayGroup get(@NotNull final Block block) {
+        return get(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    public @Nullable DisplayGroup get(@NotNull final Location blockLocation) {
+        return get(blockLocation.getWorld(), blockLocation.getBlockX(), blockLocation.getBlockY(), blockLocation.getBlockZ());
+    }
+
+    /**
+     * Unregisters the model at the block. The model's displays are not removed
+     * @return The model which was registered at the block, or null if there was none
+     */
+    public @Nullable DisplayGroup remove(@NotNull final World world, final int x, final int y, final int z) {
+        final WorldEntries entries = worlds.get(world.getUID());
+        if (entries == null) {
+            return null;
+        }
+        final long key = getBlockKey(x, y, z);
+        final DisplayGroup removed = entries.blocks.remove(key);
+        if (removed != null) {
+            final long chunkKey = getChunkKey(key);
+            final ChunkEntries chunk = entries.chunks.get(chunkKey);
+            chunk.remove(key);
+            if (chunk.size == 0) {
+                entries.chunks.remove(chunkKey);
+            }
+        }
+        return removed;
+    }
+    public @Nullable DisplayGroup remove(@NotNull final Block block) {
+        return remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    public @Nullable DisplayGroup remove(@NotNull final Location blockLocation) {
+        return remove(blockLocation.getWorld(), blockLocation.getBlockX(), blockLocation.getBlockY(), blockLocation.getBlockZ());
+    }
+    /**
+     * Unregisters the model at the block, but only if it is the given model
+     * @return True if the model was unregistered
+     */
+    public boolean remove(@NotNull final Location blockLocation, @NotNull final DisplayGroup group) {
+        if (get(blockLocation) != group) {
+            return false;
+        }
+        remove(blockLocation);
+        return true;
+    }
+
+    /**
+     * Unregisters the model at the block and removes its displays
+     * @return The model which was removed, or null if there was none
+     */
+    public @Nullable DisplayGroup removeAndDestroy(@NotNull final World world, final int x, final int y, final int z) {
+        final DisplayGroup removed = remove(world, x, y, z);
+        if (removed != null) {
+            removed.remove();
+        }
+        return removed;
+    }
+    public @Nullable DisplayGroup removeAndDestroy(@NotNull final Block block) {
+        return removeAndDestroy(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+    public @Nullable DisplayGroup removeAndDestroy(@NotNull final Location blockLocation) {
+        return removeAndDestroy(blockLocation.getWorld(), blockLocation.getBlockX(), blockLocation.getBlockY(), blockLocation.getBlockZ());
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int x, int y, int z, @NotNull DisplayGroup group);
+    }
+
+    /**
+     * Visits every model registered in the chunk
+     */
+    public void forEachInChunk(@NotNull final World world, final int chunkX, final int chunkZ, @NotNull final EntryConsumer consumer) {
+        final WorldEntries entries = worlds.get(world.getUID());
+        if (entries == null) {
+            return;
+        }
+        final ChunkEntries chunk = entries.chunks.get(Chunk.getChunkKey(chunkX, chunkZ));
+        if (chunk == null) {
+            return;
+        }
+        // Copied, so that the consumer can safely remove entries
+        final long[] blocks = Arrays.copyOf(chunk.blocks, chunk.size);
+        for (final long key : blocks) {
+            final DisplayGroup group = entries.blocks.get(key);
+            // The consumer may have removed a later entry
+            if (group != null) {
+                consumer.accept(getBlockX(key), getBlockY(key), getBlockZ(key), group);
+            }
+        }
+    }
+    public void forEachInChunk(@NotNull final Chunk chunk, @NotNull final EntryConsumer consumer) {
+        forEachInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ(), consumer);
+    }
+
+    /**
+     * Unregisters every model in the chunk, for example when it unloads
+     * @return The models which were unregistered
+     */
+    public @NotNull List<DisplayGroup> removeChunk(@NotNull final Chunk chunk) {
+        final List<DisplayGroup> removed = new ArrayList<>();
+        forEachInChunk(chunk, (x, y, z, group) -> removed.add(remove(chunk.getWorld(), x, y, z)));
+        return removed;
+    }
+
+    /**
+     * Drops the entries in the chunk, as its displays are saved with it and are no longer valid
+     * Models which are still wanted should be built (and registered) again when the chunk loads
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(@NotNull final ChunkUnloadEvent event) {
+        removeChunk(event.getChunk());
+    }
+
+    /**
+     * Visits every model whose block is within the radius of the location, checking only the chunks which overlap the radius
+     */
+    public void forEachInRadius(@NotNull final Location center, final double radius, @NotNull final EntryConsumer consumer) {
+        final double radiusSquared = radius * radius;
+        final int minChunkX = (int) Math.floor(center.getX() - radius) >> 4;
+        final int maxChunkX = (int) Math.floor(center.getX() + radius) >> 4;
+        final int minChunkZ = (int) Math.floor(center.getZ() - radius) >> 4;
+        final int maxChunkZ = (int) Math.floor(center.getZ() + radius) >> 4;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                forEachInChunk(center.getWorld(), chunkX, chunkZ, (x, y, z, group) -> {
+                    final double dx = x + 0.5 - center.getX();
+                    final double dy = y + 0.5 - center.getY();
+                    final double dz = z + 0.5 - center.getZ();
+                    if (dx*dx + dy*dy + dz*dz <= radiusSquared) {
+                        consumer.accept(x, y, z, group);
+                    }
+                });
+            }
+        }
+    }
+    /**
+     * @return Every model whose block is within the radius of the location
+     */
+    public @NotNull List<DisplayGroup> getInRadius(@NotNull final Location center, final double radius) {
+        final List<DisplayGroup> groups = new ArrayList<>();
+        forEachInRadius(center, radius, (x, y, z, group) -> groups.add(group));
+        return groups;
+    }
+
+    public int size() {
+        return worlds.values().stream().mapToInt(entries -> entries.blocks.size()).sum();
+    }
+    public void clear() {
+        worlds.clear();
+    }
+}
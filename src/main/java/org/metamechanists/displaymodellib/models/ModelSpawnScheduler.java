@@ -0,0 +1,177 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+
+
+/**
+ * Spreads the spawning of models over several ticks, so that building lots of models at once (eg when a chunk loads) does not cause a lag spike
+ * Every tick, components are spawned until the time budget runs out, starting with the models closest to a player
+ * Distances to players are recalculated every {@link #REPRIORITISE_INTERVAL_TICKS} ticks, and that work counts against the budget of the tick it happens in
+ * At least one component is spawned each tick, so models are always completed eventually
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelSpawnScheduler {
+    public static final long DEFAULT_BUDGET_NANOS = 2_000_000;
+    public static final int REPRIORITISE_INTERVAL_TICKS = 20;
+    private final Plugin plugin;
+    private final long budgetNanos;
+    private final PriorityQueue<Job> queue = new PriorityQueue<>(Comparator.comparingDouble((Job job) -> job.distanceSquared).thenComparingLong(job -> job.sequence));
+    private long nextSequence;
+    private int ticksSinceReprioritise;
+    private BukkitTask task;
+
+    public ModelSpawnScheduler(@NotNull final Plugin plugin) {
+        this(plugin, DEFAULT_BUDGET_NANOS);
+    }
+    /**
+     * @param budgetNanos The maximum time to spend spawning components each tick, in nanoseconds
+     */
+    public ModelSpawnScheduler(@NotNull final Plugin plugin, final long budgetNanos) {
+        this.plugin = plugin;
+        this.budgetNanos = budgetNanos;
+    }
+
+    private static final class Job {
+        private final DisplayGroup group;
+        private final Location center;
+        private final List<String> names = new ArrayList<>();
+        private final List<DisplayBuilder> builders = new ArrayList<>();
+        private final CompletableFuture<DisplayGroup> future = new CompletableFuture<>();
+        private final long sequence;
+        private double distanceSquared;
+        private int next;
+
+        private Job(@NotNull final DisplayGroup group, @NotNull final Location center, final long sequence) {
+            this.group = group;
+            this.center = center;
+            this.sequence = sequence;
+        }
+
+        private boolean isFinished() {
+            return next >= builders.size();
+        }
+        private void spawnNext() {
+            group.addDisplay(names.get(next), builders.get(next).build(center.clone()));
+            next++;
+        }
+    }
+
+    /**
+     * Queues every component of the model to be spawned at the given location and added to the given display group
+     * The future is completed with the display group once every component has been spawned. Cancelling it stops any remaining components from being spawned
+     */
+    public @NotNull CompletableFuture<DisplayGroup> schedule(@NotNull final DisplayGroup group, @NotNull final Location center, @NotNull final ModelBuilder model) {
+        final Job job = new Job(group, center.clone(), nextSequence++);
+        model.forEachComponent((name, component, matrix) -> {
+            job.names.add(name);
+            // Copied now, so that changes to the model while the job is queued do not affect it (and spawning does not affect the model)
+            job.builders.add(component.getMain().copy().transformation(new Matrix4f(matrix)));
+        });
+
+        if (job.isFinished()) {
+            job.future.complete(group);
+            return job.future;
+        }
+
+        job.distanceSquared = distanceToNearestPlayerSquared(job.center);
+        queue.add(job);
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0, 1);
+        }
+        return job.future;
+    }
+
+    /**
+     * @return The number of models which have not been completely spawned yet
+     */
+    public int getQueuedModels() {
+        return queue.size();
+    }
+
+    /**
+     * Cancels every queued model and stops the scheduler. Components which have already been spawned are not removed
+     */
+    public void cancelAll() {
+        queue.forEach(job -> job.future.cancel(false));
+        queue.clear();
+        stop();
+    }
+
+    private void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private static double distanceToNearestPlayerSquared(@NotNull final Location location) {
+        double nearest = Double.MAX_VALUE;
+        for (final Player player : location.getWorld().getPlayers()) {
+            nearest = Math.min(nearest, player.getLocation().distanceSquared(location));
+        }
+        return nearest;
+    }
+
+    private void reprioritise() {
+        final List<Job> jobs = new ArrayList<>(queue);
+        queue.clear();
+        for (final Job job : jobs) {
+            if (!job.future.isDone()) {
+                job.distanceSquared = distanceToNearestPlayerSquared(job.center);
+                queue.add(job);
+            }
+        }
+    }
+
+    private void tick() {
+        // Started before reprioritising, so that checking every job against every player is part of the budget
+        final long deadline = System.nanoTime() + budgetNanos;
+
+        // Players move, but not far in a second, so the priorities are only recalculated every so often
+        ticksSinceReprioritise++;
+        if (ticksSinceReprioritise >= REPRIORITISE_INTERVAL_TICKS) {
+            ticksSinceReprioritise = 0;
+            reprioritise();
+        }
+        do {
+            final Job job = queue.peek();
+            if (job == null) {
+                break;
+            }
+            if (job.future.isDone()) {
+                queue.poll();
+                continue;
+            }
+            try {
+                job.spawnNext();
+            } catch (final RuntimeException e) {
+                queue.poll();
+                job.future.completeExceptionally(e);
+                continue;
+            }
+            if (job.isFinished()) {
+                queue.poll();
+                job.future.complete(job.group);
+            }
+        } while (System.nanoTime() < deadline);
+
+        if (queue.isEmpty()) {
+            stop();
+        }
+    }
+}
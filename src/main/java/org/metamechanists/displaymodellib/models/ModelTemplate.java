@@ -0,0 +1,150 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * An immutable snapshot of a {@link ModelBuilder}, with every component's matrix and display properties calculated ahead of time
+ * Components are stored in a dense array, so they can be referred to by index rather than by name
+ * Instancing a template only spawns displays, with no matrix maths. Templates are never modified after compiling, so they can be shared between threads (although displays must still be spawned on the main thread)
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public final class ModelTemplate {
+    private final String[] names;
+    private final DisplayBuilder[] builders;
+    private final Matrix4f[] matrices;
+    private final Map<String, Integer> indices;
+
+    ModelTemplate(@NotNull final String[] names, @NotNull final DisplayBuilder[] builders, @NotNull final Matrix4f[] matrices) {
+        this.names = names;
+        this.builders = builders;
+        this.matrices = matrices;
+        final Map<String, Integer> nameIndices = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            nameIndices.put(names[i], i);
+        }
+        this.indices = Collections.unmodifiableMap(nameIndices);
+    }
+
+    /**
+     * Compiles the model. Later changes to the model or its components are not reflected in the template
+     */
+    public static @NotNull ModelTemplate compile(@NotNull final ModelBuilder model) {
+        final List<String> names = new ArrayList<>();
+        final List<DisplayBuilder> builders = new ArrayList<>();
+        final List<Matrix4f> matrices = new ArrayList<>();
+        model.forEachComponent((name, component, matrix) -> {
+            final Matrix4f frozenMatrix = new Matrix4f(matrix);
+            names.add(name);
+            // Snapshotted before the matrix is set, so that compiling does not change the component's builder, and templated text is frozen at its current value
+            builders.add(component.getMain().snapshot().transformation(new Matrix4f(frozenMatrix)));
+            matrices.add(frozenMatrix);
+        });
+        return new ModelTemplate(names.toArray(new String[0]), builders.toArray(new DisplayBuilder[0]), matrices.toArray(new Matrix4f[0]));
+    }
+
+    public int size() {
+        return names.length;
+    }
+    public @NotNull String getName(final int index) {
+        return names[index];
+    }
+    /**
+     * @return The index of the component with the given name, or -1 if there is no such component
+     */
+    public int getIndex(@NotNull final String name) {
+        final Integer index = indices.get(name);
+        return index == null ? -1 : index;
+    }
+    public @NotNull Matrix4fc getMatrix(final int index) {
+        return matrices[index];
+    }
+    /**
+     * @return A copy of the component's display properties, which may be freely modified
+     */
+    public @NotNull DisplayBuilder getBuilder(final int index) {
+        return builders[index].copy();
+    }
+    @NotNull DisplayBuilder getBuilderView(final int index) {
+        return builders[index];
+    }
+
+    /**
+     * Creates all the components
+     * @param center The center location of the model
+     * @return The displays, indexed in the same way as the template
+     */
+    public @NotNull Display[] spawn(@NotNull final Location center) {
+        final Display[] displays = new Display[builders.length];
+        for (int i = 0; i < builders.length; i++) {
+            displays[i] = builders[i].build(center.clone());
+        }
+        return displays;
+    }
+    /**
+     * Creates all the components, reusing parked displays from the pool where possible
+     * @param center The center location of the model
+     * @return The displays, indexed in the same way as the template
+     */
+    public @NotNull Display[] spawn(@NotNull final Location center, @NotNull final DisplayPool pool) {
+        final Display[] displays = new Display[builders.length];
+        for (int i = 0; i < builders.length; i++) {
+            displays[i] = builders[i].build(center.clone(), pool);
+        }
+        return displays;
+    }
+    /**
+     * Updates each display with the properties of the component with the same index
+     */
+    public void update(@NotNull final Display @NotNull [] displays) {
+        for (int i = 0; i < builders.length; i++) {
+            builders[i].update(displays[i]);
+        }
+    }
+
+    private @NotNull DisplayGroup toDisplayGroup(@NotNull final DisplayGroup group, @NotNull final Display[] displays) {
+        for (int i = 0; i < displays.length; i++) {
+            group.addDisplay(names[i], displays[i]);
+        }
+        return group;
+    }
+    /**
+     * Creates all the components and adds them to a displaygroup
+     * @param center The center location of the model
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtLocation(@NotNull final Location center) {
+        return toDisplayGroup(new DisplayGroup(center.clone(), 0, 0), spawn(center));
+    }
+    /**
+     * Creates all the components and adds them to a displaygroup
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtBlockCenter(@NotNull final Location blockLocation) {
+        final DisplayGroup group = toDisplayGroup(new DisplayGroup(blockLocation.clone(), 0, 0), spawn(blockLocation.clone().add(0.5, 0.5, 0.5)));
+        ModelRegistry.global().register(blockLocation, group);
+        return group;
+    }
+    /**
+     * Creates all the components and adds them to the given displaygroup
+     * @param group The display group to build with
+     * @return The display group now containing the additional components
+     */
+    public DisplayGroup buildAtDisplayGroup(@NotNull final DisplayGroup group) {
+        return toDisplayGroup(group, spawn(group.getLocation()));
+    }
+}
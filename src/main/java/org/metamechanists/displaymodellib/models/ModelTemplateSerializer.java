@@ -0,0 +1,418 @@
+package org.metamechanists.displaymodellib.models;
+
+import lombok.experimental.UtilityClass;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.bukkit.entity.Display.Billboard;
+import org.bukkit.entity.TextDisplay.TextAlignment;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.builders.BlockDataCache;
+import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+import org.metamechanists.displaymodellib.builders.ItemDisplayBuilder;
+import org.metamechanists.displaymodellib.builders.TextDisplayBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Reads and writes {@link ModelTemplate}s in a compact binary format, so that models can be loaded without running the code which built them
+ * <p>
+ * The format is: the magic number and version, then three palettes (block data strings, serialized item stacks, and text as JSON), then each component
+ * Each component is its name, its type, a set of flags saying which properties are present, an index into its type's palette, its 16 matrix floats in column-major order, and then the properties which are present
+ * Strings are stored as a length followed by UTF-8 bytes, and everything is big-endian
+ */
+@UtilityClass
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ModelTemplateSerializer {
+    public final int MAGIC = 0x444D4C54;
+    public final short VERSION = 1;
+
+    private final byte TYPE_BLOCK = 0;
+    private final byte TYPE_ITEM = 1;
+    private final byte TYPE_TEXT = 2;
+
+    private final int FLAG_CONTENT = 1;
+    // The block palette entry is block data rather than a material name
+    private final int FLAG_BLOCK_DATA = 1 << 1;
+    private final int FLAG_GLOW = 1 << 2;
+    private final int FLAG_BRIGHTNESS = 1 << 3;
+    private final int FLAG_VIEW_RANGE = 1 << 4;
+    private final int FLAG_BILLBOARD = 1 << 5;
+    private final int FLAG_ALIGNMENT = 1 << 6;
+    private final int FLAG_BACKGROUND = 1 << 7;
+    private final int FLAG_INTERPOLATION_DELAY = 1 << 8;
+    private final int FLAG_INTERPOLATION_DURATION = 1 << 9;
+
+    private final int MATRIX_ELEMENTS = 16;
+
+    private static final class Palette<T> {
+        private final List<T> entries = new ArrayList<>();
+        private final Map<T, Integer> indices = new HashMap<>();
+
+        private int indexOf(@NotNull final T entry) {
+            return indices.computeIfAbsent(entry, key -> {
+                entries.add(key);
+                return entries.size() - 1;
+            });
+        }
+    }
+
+    private void writeString(@NotNull final DataOutputStream output, @NotNull final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+    private @NotNull String readString(@NotNull final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getFlags(@NotNull final DisplayBuilder builder) {
+        int flags = 0;
+        if (builder instanceof final BlockDisplayBuilder block) {
+            flags |= block.getBlockData() != null ? FLAG_CONTENT | FLAG_BLOCK_DATA : block.getMaterial() != null ? FLAG_CONTENT : 0;
+            flags |= block.getGlowColor() != null ? FLAG_GLOW : 0;
+            flags |= block.getBrightness() != null ? FLAG_BRIGHTNESS : 0;
+            flags |= block.getViewRange() != null ? FLAG_VIEW_RANGE : 0;
+            flags |= block.getInterpolationDelay() != null ? FLAG_INTERPOLATION_DELAY : 0;
+            flags |= block.getInterpolationDuration() != null ? FLAG_INTERPOLATION_DURATION : 0;
+        } else if (builder instanceof final ItemDisplayBuilder item) {
+            flags |= item.getItemStack() != null ? FLAG_CONTENT : 0;
+            flags |= item.getGlowColor() != null ? FLAG_GLOW : 0;
+            flags |= item.getBrightness() != null ? FLAG_BRIGHTNESS : 0;
+            flags |= item.getViewRange() != null ? FLAG_VIEW_RANGE : 0;
+            flags |= item.getBillboard() != null ? FLAG_BILLBOARD : 0;
+            flags |= item.getInterpolationDelay() != null ? FLAG_INTERPOLATION_DELAY : 0;
+            flags |= item.getInterpolationDuration() != null ? FLAG_INTERPOLATION_DURATION : 0;
+        } else if (builder instanceof final TextDisplayBuilder text) {
+            flags |= text.getText() != null ? FLAG_CONTENT : 0;
+            flags |= text.getGlowColor() != null ? FLAG_GLOW : 0;
+            flags |= text.getBrightness() != null ? FLAG_BRIGHTNESS : 0;
+            flags |= text.getViewRange() != null ? FLAG_VIEW_RANGE : 0;
+            flags |= text.getBillboard() != null ? FLAG_BILLBOARD : 0;
+            flags |= text.getAlignment() != null ? FLAG_ALIGNMENT : 0;
+            flags |= text.getBackgroundColor() != null ? FLAG_BACKGROUND : 0;
+            flags |= text.getInterpolationDelay() != null ? FLAG_INTERPOLATION_DELAY : 0;
+            flags |= text.getInterpolationDuration() != null ? FLAG_INTERPOLATION_DURATION : 0;
+        }
+        return flags;
+    }
+
+    /**
+     * Writes the template to the stream. The stream is not closed
+     */
+    public void write(@NotNull final ModelTemplate template, @NotNull final OutputStream stream) throws IOException {
+        final Palette<String> blocks = new Palette<>();
+        final Palette<ItemStack> items = new Palette<>();
+        final Palette<String> texts = new Palette<>();
+        final int[] types = new int[template.size()];
+        final int[] contents = new int[template.size()];
+
+        for (int i = 0; i < template.size(); i++) {
+            final DisplayBuilder builder = template.getBuilderView(i);
+            contents[i] = -1;
+            if (builder instanceof final BlockDisplayBuilder block) {
+                types[i] = TYPE_BLOCK;
+                if (block.getBlockData() != null) {
+                    contents[i] = blocks.indexOf(block.getBlockData().getAsString());
+                } else if (block.getMaterial() != null) {
+                    contents[i] = blocks.indexOf(block.getMaterial().name());
+                }
+            } else if (builder instanceof final ItemDisplayBuilder item) {
+                types[i] = TYPE_ITEM;
+                if (item.getItemStack() != null) {
+                    contents[i] = items.indexOf(item.getItemStack());
+                }
+            } else if (builder instanceof final TextDisplayBuilder text) {
+                types[i] = TYPE_TEXT;
+                if (text.getText() != null) {
+                    contents[i] = texts.indexOf(GsonComponentSerializer.gson().serialize(text.getText()));
+                }
+            } else {
+                throw new IllegalArgumentException("Cannot serialize " + builder.getClass().getSimpleName());
+            }
+        }
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+
+        output.writeInt(blocks.entries.size());
+        for (final String block : blocks.entries) {
+            writeString(output, block);
+        }
+        output.writeInt(items.entries.size());
+        for (final ItemStack item : items.entries) {
+            final byte[] bytes = item.serializeAsBytes();
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+        output.writeInt(texts.entries.size());
+        for (final String text : texts.entries) {
+            writeString(output, text);
+        }
+
+        final float[] matrix = new float[MATRIX_ELEMENTS];
+        output.writeInt(template.size());
+        for (int i = 0; i < template.size(); i++) {
+            final DisplayBuilder builder = template.getBuilderView(i);
+            final int flags = getFlags(builder);
+            writeString(output, template.getName(i));
+            output.writeByte(types[i]);
+            output.writeInt(flags);
+            output.writeInt(contents[i]);
+            template.getMatrix(i).get(matrix);
+            for (final float element : matrix) {
+                output.writeFloat(element);
+            }
+            writeProperties(output, builder, flags);
+        }
+        output.flush();
+    }
+
+    private void writeProperties(@NotNull final DataOutputStream output, @NotNull final DisplayBuilder builder, final int flags) throws IOException {
+        final Color glowColor;
+        final Integer brightness;
+        final Float viewRange;
+        Billboard billboard = null;
+        TextAlignment alignment = null;
+        Color backgroundColor = null;
+        final Integer interpolationDelay;
+        final Integer interpolationDuration;
+        if (builder instanceof final BlockDisplayBuilder block) {
+            glowColor = block.getGlowColor();
+            brightness = block.getBrightness();
+            viewRange = block.getViewRange();
+            interpolationDelay = block.getInterpolationDelay();
+            interpolationDuration = block.getInterpolationDuration();
+        } else if (builder instanceof final ItemDisplayBuilder item) {
+            glowColor = item.getGlowColor();
+            brightness = item.getBrightness();
+            viewRange = item.getViewRange();
+            billboard = item.getBillboard();
+            interpolationDelay = item.getInterpolationDelay();
+            interpolationDuration = item.getInterpolationDuration();
+        } else {
+            final TextDisplayBuilder text = (TextDisplayBuilder) builder;
+            glowColor = text.getGlowColor();
+            brightness = text.getBrightness();
+            viewRange = text.getViewRange();
+            billboard = text.getBillboard();
+            alignment = text.getAlignment();
+            backgroundColor = text.getBackgroundColor();
+            interpolationDelay = text.getInterpolationDelay();
+            interpolationDuration = text.getInterpolationDuration();
+        }
+
+        if ((flags & FLAG_GLOW) != 0) {
+            output.writeInt(glowColor.asARGB());
+        }
+        if ((flags & FLAG_BRIGHTNESS) != 0) {
+            output.writeInt(brightness);
+        }
+        if ((flags & FLAG_VIEW_RANGE) != 0) {
+            output.writeFloat(viewRange);
+        }
+        if ((flags & FLAG_BILLBOARD) != 0) {
+            writeString(output, billboard.name());
+        }
+        if ((flags & FLAG_ALIGNMENT) != 0) {
+            writeString(output, alignment.name());
+        }
+        if ((flags & FLAG_BACKGROUND) != 0) {
+            output.writeInt(backgroundColor.asARGB());
+        }
+        if ((flags & FLAG_INTERPOLATION_DELAY) != 0) {
+            output.writeInt(interpolationDelay);
+        }
+        if ((flags & FLAG_INTERPOLATION_DURATION) != 0) {
+            output.writeInt(interpolationDuration);
+        }
+    }
+
+    /**
+     * Writes the template to a file, replacing it if it already exists
+     */
+    public void write(@NotNull final ModelTemplate template, @NotNull final Path path) throws IOException {
+        try (final OutputStream stream = Files.newOutputStream(path)) {
+            write(template, stream);
+        }
+    }
+
+    /**
+     * Reads a template from a file, by mapping it into memory rather than copying it through a stream
+     */
+    public @NotNull ModelTemplate read(@NotNull final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        }
+    }
+
+    /**
+     * Reads a template from the buffer's current position
+     * @throws IOException If the data is not a template, is from an unsupported version, or is truncated
+     */
+    public @NotNull ModelTemplate read(@NotNull final ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a model template");
+            }
+            final short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported model template version " + version);
+            }
+
+            final String[] blocks = new String[buffer.getInt()];
+            for (int i = 0; i < blocks.length; i++) {
+                blocks[i] = readString(buffer);
+            }
+            final ItemStack[] items = new ItemStack[buffer.getInt()];
+            for (int i = 0; i < items.length; i++) {
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                items[i] = ItemStack.deserializeBytes(bytes);
+            }
+            final Component[] texts = new Component[buffer.getInt()];
+            for (int i = 0; i < texts.length; i++) {
+                texts[i] = GsonComponentSerializer.gson().deserialize(readString(buffer));
+            }
+
+            final int size = buffer.getInt();
+            final String[] names = new String[size];
+            final DisplayBuilder[] builders = new DisplayBuilder[size];
+            final Matrix4f[] matrices = new Matrix4f[size];
+            final float[] elements = new float[MATRIX_ELEMENTS];
+            for (int i = 0; i < size; i++) {
+                names[i] = readString(buffer);
+                final byte type = buffer.get();
+                final int flags = buffer.getInt();
+                final int content = buffer.getInt();
+                for (int element = 0; element < MATRIX_ELEMENTS; element++) {
+                    elements[element] = buffer.getFloat();
+                }
+                matrices[i] = new Matrix4f().set(elements);
+                builders[i] = readBuilder(buffer, type, flags, content, blocks, items, texts).transformation(new Matrix4f(matrices[i]));
+            }
+            return new ModelTemplate(names, builders, matrices);
+        } catch (final BufferUnderflowException e) {
+            throw new IOException("Model template is truncated", e);
+        }
+    }
+
+    private @NotNull DisplayBuilder readBuilder(@NotNull final ByteBuffer buffer, final byte type, final int flags, final int content,
+                                                @NotNull final String[] blocks, @NotNull final ItemStack[] items, @NotNull final Component[] texts) throws IOException {
+        final boolean hasContent = (flags & FLAG_CONTENT) != 0;
+        final Color glowColor = (flags & FLAG_GLOW) != 0 ? Color.fromARGB(buffer.getInt()) : null;
+        final Integer brightness = (flags & FLAG_BRIGHTNESS) != 0 ? buffer.getInt() : null;
+        final Float viewRange = (flags & FLAG_VIEW_RANGE) != 0 ? buffer.getFloat() : null;
+        final Billboard billboard = (flags & FLAG_BILLBOARD) != 0 ? Billboard.valueOf(readString(buffer)) : null;
+        final TextAlignment alignment = (flags & FLAG_ALIGNMENT) != 0 ? TextAlignment.valueOf(readString(buffer)) : null;
+        final Color backgroundColor = (flags & FLAG_BACKGROUND) != 0 ? Color.fromARGB(buffer.getInt()) : null;
+        final Integer interpolationDelay = (flags & FLAG_INTERPOLATION_DELAY) != 0 ? buffer.getInt() : null;
+        final Integer interpolationDuration = (flags & FLAG_INTERPOLATION_DURATION) != 0 ? buffer.getInt() : null;
+
+        if (type == TYPE_BLOCK) {
+            final BlockDisplayBuilder block = new BlockDisplayBuilder();
+            if (hasContent && (flags & FLAG_BLOCK_DATA) != 0) {
+                block.blockData(BlockDataCache.get(blocks[content]));
+            } else if (hasContent) {
+                block.material(Material.valueOf(blocks[content]));
+            }
+            if (glowColor != null) {
+                block.glow(glowColor);
+            }
+            if (brightness != null) {
+                block.brightness(brightness);
+            }
+            if (viewRange != null) {
+                block.viewRange(viewRange);
+            }
+            if (interpolationDelay != null) {
+                block.interpolationDelay(interpolationDelay);
+            }
+            if (interpolationDuration != null) {
+                block.interpolationDuration(interpolationDuration);
+            }
+            return block;
+        }
+        if (type == TYPE_ITEM) {
+            final ItemDisplayBuilder item = new ItemDisplayBuilder();
+            if (hasContent) {
+                item.itemStack(items[content].clone());
+            }
+            if (glowColor != null) {
+                item.glow(glowColor);
+            }
+            if (brightness != null) {
+                item.brightness(brightness);
+            }
+            if (viewRange != null) {
+                item.viewRange(viewRange);
+            }
+            if (billboard != null) {
+                item.billboard(billboard);
+            }
+            if (interpolationDelay != null) {
+                item.interpolationDelay(interpolationDelay);
+            }
+            if (interpolationDuration != null) {
+                item.interpolationDuration(interpolationDuration);
+            }
+            return item;
+        }
+        if (type == TYPE_TEXT) {
+            final TextDisplayBuilder text = new TextDisplayBuilder();
+            if (hasContent) {
+                text.text(texts[content]);
+            }
+            if (glowColor != null) {
+                text.glow(glowColor);
+            }
+            if (brightness != null) {
+                text.brightness(brightness);
+            }
+            if (viewRange != null) {
+                text.viewRange(viewRange);
+            }
+            if (billboard != null) {
+                text.billboard(billboard);
+            }
+            if (alignment != null) {
+                text.alignment(alignment);
+            }
+            if (backgroundColor != null) {
+                text.backgroundColor(backgroundColor);
+            }
+            if (interpolationDelay != null) {
+                text.interpolationDelay(interpolationDelay);
+            }
+            if (interpolationDuration != null) {
+                text.interpolationDuration(interpolationDuration);
+            }
+            return text;
+        }
+        throw new IOException("Unknown component type " + type);
+    }
+}
@@ -0,0 +1,144 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import org.bukkit.Location;
+import org.bukkit.block.BlockFace;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A {@link ModelBuilder} precompiled into several orientations, with the rotation already multiplied into every component's matrix
+ * Building a variant does no matrix maths at all, so placing many rotated models is as cheap as placing unrotated ones
+ * Each variant is the model rotated so that its south (positive Z) side faces the given {@link BlockFace}, then rolled about that face in 90 degree steps
+ */
+@SuppressWarnings("unused")
+public class OrientedModel {
+    private static final List<BlockFace> CARDINAL_FACES = List.of(BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST);
+    private static final List<BlockFace> ALL_FACES = List.of(BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN);
+    private static final int ROLLS = 4;
+
+    private final List<BlockFace> faces;
+    private final int rolls;
+    private final String[] names;
+    private final DisplayBuilder[] builders;
+    private final Matrix4f[][] variants;
+
+    private OrientedModel(@NotNull final ModelBuilder model, @NotNull final List<BlockFace> faces, final int rolls) {
+        this.faces = faces;
+        this.rolls = rolls;
+        final List<String> componentNames = new ArrayList<>();
+        final List<DisplayBuilder> componentBuilders = new ArrayList<>();
+        final List<Matrix4f> matrices = new ArrayList<>();
+        model.forEachComponent((name, component, matrix) -> {
+            componentNames.add(name);
+            // Copied, so that later changes to the model (or building it) do not affect the variants
+            componentBuilders.add(component.getMain().copy());
+            matrices.add(new Matrix4f(matrix));
+        });
+        this.names = componentNames.toArray(new String[0]);
+        this.builders = componentBuilders.toArray(new DisplayBuilder[0]);
+        this.variants = new Matrix4f[faces.size() * rolls][names.length];
+
+        for (int face = 0; face < faces.size(); face++) {
+            for (int roll = 0; roll < rolls; roll++) {
+                final Matrix4f orientation = orientation(faces.get(face), roll);
+                final Matrix4f[] variant = variants[face * rolls + roll];
+                for (int component = 0; component < names.length; component++) {
+                    variant[component] = new Matrix4f(orientation).mul(matrices.get(component));
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles the model facing each of the four cardinal directions
+     */
+    public static @NotNull OrientedModel cardinal(@NotNull final ModelBuilder model) {
+        return new OrientedModel(model, CARDINAL_FACES, 1);
+    }
+    /**
+     * Compiles the model into all 24 orientations of a cube (6 faces, each with 4 rolls)
+     */
+    public static @NotNull OrientedModel allOrientations(@NotNull final ModelBuilder model) {
+        return new OrientedModel(model, ALL_FACES, ROLLS);
+    }
+
+    private static @NotNull Matrix4f orientation(@NotNull final BlockFace face, final int roll) {
+        final Matrix4f rotation = new TransformationMatrixBuilder()
+                .lookAlong(face)
+                .rotate(0, 0, roll * Math.PI / 2)
+                .buildForItemDisplay();
+        // Every entry is exactly -1, 0 or 1; rounding removes the floating point error from the trigonometry
+        return rotation
+                .m00(Math.round(rotation.m00())).m01(Math.round(rotation.m01())).m02(Math.round(rotation.m02()))
+                .m10(Math.round(rotation.m10())).m11(Math.round(rotation.m11())).m12(Math.round(rotation.m12()))
+                .m20(Math.round(rotation.m20())).m21(Math.round(rotation.m21())).m22(Math.round(rotation.m22()));
+    }
+
+    private @NotNull Matrix4f[] getVariant(@NotNull final BlockFace face, final int roll) {
+        final int faceIndex = faces.indexOf(face);
+        if (faceIndex == -1) {
+            throw new IllegalArgumentException("Model was not compiled facing " + face);
+        }
+        if (roll < 0 || roll >= rolls) {
+            throw new IllegalArgumentException("Model was not compiled with roll " + roll);
+        }
+        return variants[faceIndex * rolls + roll];
+    }
+
+    private void build(@NotNull final DisplayGroup group, @NotNull final Location center, @NotNull final Matrix4f[] variant) {
+        for (int i = 0; i < builders.length; i++) {
+            group.addDisplay(names[i], builders[i].transformation(variant[i]).build(center.clone()));
+        }
+    }
+
+    /**
+     * Creates all the components, facing the given direction, and adds them to a displaygroup
+     * @param center The center location of the model
+     * @param facing The direction that the south side of the model should face
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtLocation(@NotNull final Location center, @NotNull final BlockFace facing) {
+        return buildAtLocation(center, facing, 0);
+    }
+    /**
+     * Creates all the components, facing the given direction, and adds them to a displaygroup
+     * @param center The center location of the model
+     * @param facing The direction that the south side of the model should face
+     * @param roll The number of 90 degree turns about the facing direction (only available if compiled with {@link #allOrientations(ModelBuilder)})
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtLocation(@NotNull final Location center, @NotNull final BlockFace facing, final int roll) {
+        final DisplayGroup group = new DisplayGroup(center.clone(), 0, 0);
+        build(group, center, getVariant(facing, roll));
+        return group;
+    }
+    /**
+     * Creates all the components, facing the given direction, and adds them to a displaygroup
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @param facing The direction that the south side of the model should face
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtBlockCenter(@NotNull final Location blockLocation, @NotNull final BlockFace facing) {
+        return buildAtBlockCenter(blockLocation, facing, 0);
+    }
+    /**
+     * Creates all the components, facing the given direction, and adds them to a displaygroup
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @param facing The direction that the south side of the model should face
+     * @param roll The number of 90 degree turns about the facing direction (only available if compiled with {@link #allOrientations(ModelBuilder)})
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtBlockCenter(@NotNull final Location blockLocation, @NotNull final BlockFace facing, final int roll) {
+        final DisplayGroup group = new DisplayGroup(blockLocation.clone(), 0, 0);
+        build(group, blockLocation.clone().add(0.5, 0.5, 0.5), getVariant(facing, roll));
+        ModelRegistry.global().register(blockLocation, group);
+        return group;
+    }
+}
@@ -0,0 +1,185 @@
+package org.metamechanists.displaymodellib.models;
+
+import dev.sefiraat.sefilib.entity.display.DisplayGroup;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
+import org.metamechanists.displaymodellib.models.components.ModelComponent;
+import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+
+/**
+ * A model whose matrices and display properties have already been calculated, so that building or updating it only makes the Bukkit calls
+ * Preparing copies the model's components and group transformations on the calling thread, which must be the thread that owns the model (usually the main thread)
+ * The matrices are then calculated from the copies, which can be done for many models in parallel off the main thread; applying must be done on the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class PreparedModel {
+    private final String[] names;
+    private final DisplayBuilder[] builders;
+    // Only set between copying the model and finishing the preparation
+    private Structure structure;
+
+    /**
+     * Copies of a model's components and group transformations. Copying is cheap, as no matrices are calculated
+     * Groups are stored before their children, so every group's world matrix can be calculated from its parent's in one pass
+     */
+    private static final class Structure {
+        private final List<ModelComponent> components = new ArrayList<>();
+        // The index of the group each component is in, or -1 if it is not in a group
+        private final List<Integer> componentGroups = new ArrayList<>();
+        private final List<TransformationMatrixBuilder> groupMatrixBuilders = new ArrayList<>();
+        // The index of each group's parent, or -1 if it is not nested
+        private final List<Integer> groupParents = new ArrayList<>();
+
+        private void addComponent(@NotNull final List<String> names, @NotNull final String name, @NotNull final ModelComponent component, final int group) {
+            names.add(name);
+            components.add(component.copy());
+            componentGroups.add(group);
+        }
+        /**
+         * Adds the group's components and nested groups in the same order as {@link ModelGroup#forEachComponent(ComponentVisitor)}
+         */
+        private void addGroup(@NotNull final List<String> names, @NotNull final String path, @NotNull final ModelGroup group, final int parent) {
+            final int index = groupMatrixBuilders.size();
+            groupMatrixBuilders.add(new TransformationMatrixBuilder(group.getMatrixBuilder()));
+            groupParents.add(parent);
+            group.getComponents().forEach((name, component) -> addComponent(names, path + ModelGroup.SEPARATOR + name, component, index));
+            group.getGroups().forEach((name, child) -> addGroup(names, path + ModelGroup.SEPARATOR + name, child, index));
+        }
+    }
+
+    private PreparedModel(@NotNull final String[] names, @NotNull final Structure structure) {
+        this.names = names;
+        this.builders = new DisplayBuilder[names.length];
+        this.structure = structure;
+    }
+
+    /**
+     * Copies every component and group transformation in the model, in the same order as {@link ModelBuilder#forEachComponent(ComponentVisitor)}
+     * No matrices are read, so the model's caches are left alone, but this must still be done on the thread which owns the model
+     */
+    private static @NotNull PreparedModel snapshot(@NotNull final ModelBuilder model) {
+        final List<String> names = new ArrayList<>();
+        final Structure structure = new Structure();
+        model.getComponents().forEach((name, component) -> structure.addComponent(names, name, component, -1));
+        model.getGroups().forEach((name, group) -> structure.addGroup(names, name, group, -1));
+        return new PreparedModel(names.toArray(new String[0]), structure);
+    }
+    /**
+     * Calculates the world matrix of every group, then the final matrix of every component, and sets each copied builder's transformation
+     * Only touches the copies, so it is safe on any thread
+     */
+    private @NotNull PreparedModel finish() {
+        final Matrix4f[] worldMatrices = new Matrix4f[structure.groupMatrixBuilders.size()];
+        for (int i = 0; i < worldMatrices.length; i++) {
+            final Matrix4f matrix = structure.groupMatrixBuilders.get(i).buildForItemDisplay();
+            final int parent = structure.groupParents.get(i);
+            worldMatrices[i] = parent == -1 ? matrix : new Matrix4f(worldMatrices[parent]).mul(matrix);
+        }
+        for (int i = 0; i < builders.length; i++) {
+            final ModelComponent component = structure.components.get(i);
+            final int group = structure.componentGroups.get(i);
+            final Matrix4f matrix = group == -1 ? component.getMatrix() : new Matrix4f(worldMatrices[group]).mul(component.getMatrixView());
+            // The component is a copy, so its builder can be used directly
+            builders[i] = component.getMain().transformation(matrix);
+        }
+        structure = null;
+        return this;
+    }
+
+    /**
+     * Copies the model and calculates the state of every component on the calling thread
+     */
+    public static @NotNull PreparedModel prepare(@NotNull final ModelBuilder model) {
+        return snapshot(model).finish();
+    }
+    /**
+     * Copies the model on the calling thread, then calculates the matrices and state of every component on the given executor
+     * The model is never read by the executor, so it may be modified as soon as this returns
+     */
+    public static @NotNull CompletableFuture<PreparedModel> prepare(@NotNull final ModelBuilder model, @NotNull final Executor executor) {
+        final PreparedModel prepared = snapshot(model);
+        return CompletableFuture.supplyAsync(prepared::finish, executor);
+    }
+    /**
+     * Prepares each model as a separate task on the given executor, so that they are prepared in parallel
+     * @return A future completed with the prepared models, in the same order as the given models
+     */
+    public static @NotNull CompletableFuture<List<PreparedModel>> prepareAll(@NotNull final List<ModelBuilder> models, @NotNull final Executor executor) {
+        final List<CompletableFuture<PreparedModel>> futures = new ArrayList<>(models.size());
+        for (final ModelBuilder model : models) {
+            futures.add(prepare(model, executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            final List<PreparedModel> prepared = new ArrayList<>(futures.size());
+            futures.forEach(future -> prepared.add(future.join()));
+            return prepared;
+        });
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Creates all the components and adds them to a displaygroup
+     * @param center The center location of the model
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtLocation(@NotNull final Location center) {
+        final DisplayGroup group = new DisplayGroup(center.clone(), 0, 0);
+        for (int i = 0; i < names.length; i++) {
+            group.addDisplay(names[i], builders[i].build(center.clone()));
+        }
+        return group;
+    }
+    /**
+     * Creates all the components and adds them to a displaygroup
+     * @param blockLocation The block location of the model (this will be converted to the center of the block and used to build the model)
+     * @return The display group containing all the components
+     */
+    public DisplayGroup buildAtBlockCenter(@NotNull final Location blockLocation) {
+        final DisplayGroup group = new DisplayGroup(blockLocation.clone(), 0, 0);
+        final Location center = blockLocation.clone().add(0.5, 0.5, 0.5);
+        for (int i = 0; i < names.length; i++) {
+            group.addDisplay(names[i], builders[i].build(center.clone()));
+        }
+        ModelRegistry.global().register(blockLocation, group);
+        return group;
+    }
+
+    /**
+     * Updates the displays in the group which have the same names as the model's components
+     */
+    public void update(@NotNull final DisplayGroup group) {
+        final Map<String, Display> displays = group.getDisplays();
+        for (int i = 0; i < names.length; i++) {
+            final Display display = displays.get(names[i]);
+            if (display != null) {
+                builders[i].update(display);
+            }
+        }
+    }
+    /**
+     * Updates the displays in the group which have the same names as the model's components, only setting properties which have changed
+     */
+    public void update(@NotNull final DisplayGroup group, @NotNull final DisplayStateCache cache) {
+        final Map<String, Display> displays = group.getDisplays();
+        for (int i = 0; i < names.length; i++) {
+            final Display display = displays.get(names[i]);
+            if (display != null) {
+                builders[i].update(display, cache);
+            }
+        }
+    }
+}
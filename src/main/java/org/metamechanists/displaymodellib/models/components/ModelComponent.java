@@ -5,15 +5,58 @@ import org.bukkit.block.Block;
 import org.bukkit.entity.Display;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 /**
  * Represents a single component of a model, composed of one or multiple Displays.
  */
 public interface ModelComponent {
+    /**
+     * @return The builder holding the display's properties (the transformation is set from the component's matrix when building)
+     */
+    DisplayBuilder getMain();
+    /**
+     * @return A copy of the component, including its builder and transformation, which shares nothing that can be modified with the original
+     */
+    ModelComponent copy();
+    /**
+     * @return A copy of the component's matrix, which may be freely modified
+     */
     Matrix4f getMatrix();
+    /**
+     * @return A read-only view of the component's matrix. This is cached, and only recalculated after the component has been changed
+     * The view is live: it may be recalculated in place when the component changes, so use {@link #getMatrix()} to keep the current matrix
+     */
+    Matrix4fc getMatrixView();
+    /**
+     * @return A number which changes whenever the component's matrix changes, so that anything derived from the matrix can tell when it is stale
+     */
+    int getMatrixVersion();
     void updateMatrix(@NotNull Display display);
+    /**
+     * Equivalent to {@link #updateMatrix(Display)}, but sets the transformation as a translation, rotations and scale where possible
+     * This skips the server decomposing the matrix, which is noticeably cheaper when updating many displays
+     */
+    void updateTransformation(@NotNull Display display);
     void update(@NotNull Display display);
+    /**
+     * Equivalent to {@link #update(Display)}, but only sets the properties which have changed since the display was last updated through the given cache
+     */
+    void update(@NotNull Display display, @NotNull DisplayStateCache cache);
     Display build(@NotNull final Location origin);
     Display build(@NotNull final Block block);
+    /**
+     * Equivalent to {@link #build(Location)}, but reuses a parked display from the pool if there is one
+     */
+    Display build(@NotNull final Location origin, @NotNull final DisplayPool pool);
+    /**
+     * Equivalent to {@link #build(Location)}, but creates a display which only exists on clients
+     */
+    VirtualDisplay buildVirtual(@NotNull final Location origin);
+    void updateVirtual(@NotNull VirtualDisplay display);
 }
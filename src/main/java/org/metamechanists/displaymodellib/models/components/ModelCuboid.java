@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.models.components;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -9,15 +10,21 @@ import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Quaterniond;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
 import org.joml.Vector3f;
 import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
 import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
 import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 @SuppressWarnings({"unused", "WeakerAccess"})
@@ -25,6 +32,14 @@ import org.metamechanists.displaymodellib.transformations.TransformationUtils;
 public class ModelCuboid implements ModelComponent {
     private final BlockDisplayBuilder main;
     private final TransformationMatrixBuilder matrixBuilder;
+    @Getter(AccessLevel.NONE)
+    private Matrix4f matrix;
+    @Getter(AccessLevel.NONE)
+    private int matrixVersion = -1;
+    @Getter(AccessLevel.NONE)
+    private Transformation transformation;
+    @Getter(AccessLevel.NONE)
+    private int transformationVersion = -1;
 
     public ModelCuboid() {
          this.main = new BlockDisplayBuilder();
@@ -333,16 +348,55 @@ public class ModelCuboid implements ModelComponent {
         return this;
     }
 
+    private @NotNull Matrix4f getCachedMatrix() {
+        if (matrix == null || matrixVersion != matrixBuilder.getVersion()) {
+            matrix = matrixBuilder.buildForBlockDisplay();
+            matrixVersion = matrixBuilder.getVersion();
+        }
+        return matrix;
+    }
+    private @Nullable Transformation getCachedTransformation() {
+        if (transformationVersion != matrixBuilder.getVersion()) {
+            transformation = matrixBuilder.buildTransformationForBlockDisplay();
+            transformationVersion = matrixBuilder.getVersion();
+        }
+        return transformation;
+    }
+
     @Override
     public Matrix4f getMatrix() {
-        return matrixBuilder.buildForBlockDisplay();
+        return new Matrix4f(getCachedMatrix());
+    }
+    @Override
+    public Matrix4fc getMatrixView() {
+        return getCachedMatrix();
+    }
+    @Override
+    public ModelCuboid copy() {
+        return new ModelCuboid(this);
+    }
+    @Override
+    public int getMatrixVersion() {
+        return matrixBuilder.getVersion();
     }
     @Override
     public void updateMatrix(final @NotNull Display display) {
         if (!(display instanceof final BlockDisplay blockDisplay)) {
             throw new IllegalArgumentException("Must provide a BlockDisplay");
         }
-        blockDisplay.setTransformationMatrix(getMatrix());
+        blockDisplay.setTransformationMatrix(getCachedMatrix());
+    }
+    @Override
+    public void updateTransformation(final @NotNull Display display) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        final Transformation cachedTransformation = getCachedTransformation();
+        if (cachedTransformation == null) {
+            blockDisplay.setTransformationMatrix(getCachedMatrix());
+            return;
+        }
+        blockDisplay.setTransformation(cachedTransformation);
     }
     @Override
     public void update(final @NotNull Display display) {
@@ -352,10 +406,29 @@ public class ModelCuboid implements ModelComponent {
         main.transformation(getMatrix()).update(blockDisplay);
     }
     @Override
+    public void update(final @NotNull Display display, final @NotNull DisplayStateCache cache) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        main.transformation(getMatrix()).update(blockDisplay, cache);
+    }
+    @Override
     public BlockDisplay build(@NotNull final Location origin) {
         return main.transformation(getMatrix()).build(origin);
     }
     @Override
+    public BlockDisplay build(@NotNull final Location origin, @NotNull final DisplayPool pool) {
+        return main.transformation(getMatrix()).build(origin, pool);
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location origin) {
+        return main.transformation(getMatrix()).buildVirtual(origin);
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        main.transformation(getMatrix()).updateVirtual(display);
+    }
+    @Override
     public BlockDisplay build(@NotNull final Block block) {
         return build(block.getLocation());
     }
@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.models.components;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -9,18 +10,25 @@ import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Vector3d;
 import org.joml.Vector3f;
 import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
 import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
 import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 /**
  * Represents a diamond (no not that kind of diamond... this is a rotated cube)
  * Offers far less flexibility than ModelCuboid
+ * The matrix is cached until a setter is called, so vectors passed to the setters should not be modified afterwards
  */
 @SuppressWarnings({"unused", "WeakerAccess"})
 @Getter
@@ -30,6 +38,16 @@ public class ModelDiamond implements ModelComponent {
     private Vector3f location;
     private Vector3f facing;
     private Vector3f size;
+    @Getter(AccessLevel.NONE)
+    private int version;
+    @Getter(AccessLevel.NONE)
+    private Matrix4f matrix;
+    @Getter(AccessLevel.NONE)
+    private int matrixVersion = -1;
+    @Getter(AccessLevel.NONE)
+    private Transformation transformation;
+    @Getter(AccessLevel.NONE)
+    private int transformationVersion = -1;
 
     public ModelDiamond() {
         this.main = new BlockDisplayBuilder();
@@ -49,6 +67,7 @@ public class ModelDiamond implements ModelComponent {
      */
     public ModelDiamond location(@NotNull final Vector3f location) {
         this.location = location;
+        this.version++;
         return this;
     }
     /**
@@ -63,6 +82,7 @@ public class ModelDiamond implements ModelComponent {
      */
     public ModelDiamond location(@NotNull final Vector3d location) {
         this.location = TransformationUtils.dropPrecision(location);
+        this.version++;
         return this;
     }
     /**
@@ -78,6 +98,7 @@ public class ModelDiamond implements ModelComponent {
      */
     public ModelDiamond facing(final @NotNull Vector3f facing) {
         this.facing = facing;
+        this.version++;
         return this;
     }
     /**
@@ -86,6 +107,7 @@ public class ModelDiamond implements ModelComponent {
      */
     public ModelDiamond facing(final @NotNull Vector3d facing) {
         this.facing = TransformationUtils.dropPrecision(facing);
+        this.version++;
         return this;
     }
     /**
@@ -104,6 +126,7 @@ public class ModelDiamond implements ModelComponent {
         // But we actually want the size to be inputted as the distance from one corner to the opposite corner
         // We can accomplish this with basic pythagoras
         this.size = new Vector3f((float) Math.sqrt(2 * Math.pow(size/2, 2)));
+        this.version++;
         return this;
     }
     /**
@@ -145,21 +168,62 @@ public class ModelDiamond implements ModelComponent {
         return this;
     }
 
-    @Override
-    public Matrix4f getMatrix() {
+    private @NotNull TransformationMatrixBuilder buildMatrixBuilder() {
         return new TransformationMatrixBuilder()
                 .lookAlong(facing)
                 .translate(location)
                 .rotate(ROTATION)
-                .scale(size)
-                .buildForBlockDisplay();
+                .scale(size);
+    }
+    private @NotNull Matrix4f getCachedMatrix() {
+        if (matrix == null || matrixVersion != version) {
+            matrix = buildMatrixBuilder().buildForBlockDisplay();
+            matrixVersion = version;
+        }
+        return matrix;
+    }
+    private @Nullable Transformation getCachedTransformation() {
+        if (transformationVersion != version) {
+            transformation = buildMatrixBuilder().buildTransformationForBlockDisplay();
+            transformationVersion = version;
+        }
+        return transformation;
+    }
+
+    @Override
+    public Matrix4f getMatrix() {
+        return new Matrix4f(getCachedMatrix());
+    }
+    @Override
+    public Matrix4fc getMatrixView() {
+        return getCachedMatrix();
+    }
+    @Override
+    public ModelDiamond copy() {
+        return new ModelDiamond(this);
+    }
+    @Override
+    public int getMatrixVersion() {
+        return version;
     }
     @Override
     public void updateMatrix(final @NotNull Display display) {
         if (!(display instanceof final BlockDisplay blockDisplay)) {
             throw new IllegalArgumentException("Must provide a BlockDisplay");
         }
-        blockDisplay.setTransformationMatrix(getMatrix());
+        blockDisplay.setTransformationMatrix(getCachedMatrix());
+    }
+    @Override
+    public void updateTransformation(final @NotNull Display display) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        final Transformation cachedTransformation = getCachedTransformation();
+        if (cachedTransformation == null) {
+            blockDisplay.setTransformationMatrix(getCachedMatrix());
+            return;
+        }
+        blockDisplay.setTransformation(cachedTransformation);
     }
     @Override
     public void update(final @NotNull Display display) {
@@ -169,10 +233,29 @@ public class ModelDiamond implements ModelComponent {
         main.transformation(getMatrix()).update(blockDisplay);
     }
     @Override
+    public void update(final @NotNull Display display, final @NotNull DisplayStateCache cache) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        main.transformation(getMatrix()).update(blockDisplay, cache);
+    }
+    @Override
     public BlockDisplay build(@NotNull final Location origin) {
         return main.transformation(getMatrix()).build(origin);
     }
     @Override
+    public BlockDisplay build(@NotNull final Location origin, @NotNull final DisplayPool pool) {
+        return main.transformation(getMatrix()).build(origin, pool);
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location origin) {
+        return main.transformation(getMatrix()).buildVirtual(origin);
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        main.transformation(getMatrix()).updateVirtual(display);
+    }
+    @Override
     public BlockDisplay build(@NotNull final Block block) {
         return build(block.getLocation());
     }
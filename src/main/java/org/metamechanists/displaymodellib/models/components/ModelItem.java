@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.models.components;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -10,16 +11,22 @@ import org.bukkit.entity.Display;
 import org.bukkit.entity.Display.Billboard;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Quaterniond;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
 import org.joml.Vector3f;
 import org.metamechanists.displaymodellib.Utils;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
 import org.metamechanists.displaymodellib.builders.ItemDisplayBuilder;
 import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
 import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 @SuppressWarnings({"unused", "WeakerAccess"})
@@ -27,6 +34,14 @@ import org.metamechanists.displaymodellib.transformations.TransformationUtils;
 public class ModelItem implements ModelComponent {
     private final ItemDisplayBuilder main;
     private final TransformationMatrixBuilder matrixBuilder;
+    @Getter(AccessLevel.NONE)
+    private Matrix4f matrix;
+    @Getter(AccessLevel.NONE)
+    private int matrixVersion = -1;
+    @Getter(AccessLevel.NONE)
+    private Transformation transformation;
+    @Getter(AccessLevel.NONE)
+    private int transformationVersion = -1;
 
     public ModelItem() {
         this.main = new ItemDisplayBuilder();
@@ -339,8 +354,7 @@ public class ModelItem implements ModelComponent {
         return this;
     }
 
-    @Override
-    public Matrix4f getMatrix() {
+    private @NotNull Matrix4f buildMatrix() {
         // 1.20 added 180 degrees to item display rotation, let's account for this
         if (Utils.getMajorServerVersion() >= 20) {
             return new Matrix4f()
@@ -350,12 +364,62 @@ public class ModelItem implements ModelComponent {
 
         return matrixBuilder.buildForItemDisplay();
     }
+    private @NotNull Matrix4f getCachedMatrix() {
+        if (matrix == null || matrixVersion != matrixBuilder.getVersion()) {
+            matrix = buildMatrix();
+            matrixVersion = matrixBuilder.getVersion();
+        }
+        return matrix;
+    }
+    private @Nullable Transformation buildTransformation() {
+        final Transformation built = matrixBuilder.buildTransformationForItemDisplay();
+        if (built != null && Utils.getMajorServerVersion() >= 20) {
+            return TransformationUtils.rotateTransformation(new Quaternionf().rotateXYZ((float) Math.PI, (float) Math.PI, (float) Math.PI), built);
+        }
+        return built;
+    }
+    private @Nullable Transformation getCachedTransformation() {
+        if (transformationVersion != matrixBuilder.getVersion()) {
+            transformation = buildTransformation();
+            transformationVersion = matrixBuilder.getVersion();
+        }
+        return transformation;
+    }
+
+    @Override
+    public Matrix4f getMatrix() {
+        return new Matrix4f(getCachedMatrix());
+    }
+    @Override
+    public Matrix4fc getMatrixView() {
+        return getCachedMatrix();
+    }
+    @Override
+    public ModelItem copy() {
+        return new ModelItem(this);
+    }
+    @Override
+    public int getMatrixVersion() {
+        return matrixBuilder.getVersion();
+    }
     @Override
     public void updateMatrix(final @NotNull Display display) {
         if (!(display instanceof final ItemDisplay itemDisplay)) {
             throw new IllegalArgumentException("Must provide an ItemDisplay");
         }
-        itemDisplay.setTransformationMatrix(getMatrix());
+        itemDisplay.setTransformationMatrix(getCachedMatrix());
+    }
+    @Override
+    public void updateTransformation(final @NotNull Display display) {
+        if (!(display instanceof final ItemDisplay itemDisplay)) {
+            throw new IllegalArgumentException("Must provide an ItemDisplay");
+        }
+        final Transformation cachedTransformation = getCachedTransformation();
+        if (cachedTransformation == null) {
+            itemDisplay.setTransformationMatrix(getCachedMatrix());
+            return;
+        }
+        itemDisplay.setTransformation(cachedTransformation);
     }
     @Override
     public void update(final @NotNull Display display) {
@@ -365,10 +429,29 @@ public class ModelItem implements ModelComponent {
         main.transformation(getMatrix()).update(itemDisplay);
     }
     @Override
+    public void update(final @NotNull Display display, final @NotNull DisplayStateCache cache) {
+        if (!(display instanceof final ItemDisplay itemDisplay)) {
+            throw new IllegalArgumentException("Must provide an ItemDisplay");
+        }
+        main.transformation(getMatrix()).update(itemDisplay, cache);
+    }
+    @Override
     public ItemDisplay build(@NotNull final Location origin) {
         return main.transformation(getMatrix()).build(origin);
     }
     @Override
+    public ItemDisplay build(@NotNull final Location origin, @NotNull final DisplayPool pool) {
+        return main.transformation(getMatrix()).build(origin, pool);
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location origin) {
+        return main.transformation(getMatrix()).buildVirtual(origin);
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        main.transformation(getMatrix()).updateVirtual(display);
+    }
+    @Override
     public ItemDisplay build(@NotNull final Block block) {
         return build(block.getLocation());
     }
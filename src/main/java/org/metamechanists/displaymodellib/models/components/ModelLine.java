@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.models.components;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Color;
 import org.bukkit.Location;
@@ -8,15 +9,22 @@ import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
 import org.joml.Vector3f;
 import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
-import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
 import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 /**
  * Offers far less flexibility than ModelCuboid
+ * The matrix is cached until a setter is called, so vectors passed to the setters should not be modified afterwards
+ * Unlike the other components, the matrix is built directly from the line's direction rather than through a {@link org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder}, which keeps lines that update every tick cheap
  */
 @SuppressWarnings({"unused", "WeakerAccess"})
 @Getter
@@ -28,12 +36,24 @@ public class ModelLine implements ModelComponent {
     private float thickness;
     private float extraLength;
     private double roll;
+    @Getter(AccessLevel.NONE)
+    private int version;
+    @Getter(AccessLevel.NONE)
+    private Matrix4f matrix;
+    @Getter(AccessLevel.NONE)
+    private int matrixVersion = -1;
+    @Getter(AccessLevel.NONE)
+    private Transformation transformation;
+    @Getter(AccessLevel.NONE)
+    private int transformationVersion = -1;
 
     public ModelLine() {
         this.main = new BlockDisplayBuilder();
+        this.translation = new Vector3f();
     }
     public ModelLine(final @NotNull ModelLine other) {
         this.main = new BlockDisplayBuilder(other.main);
+        this.translation = new Vector3f(other.translation);
         this.from = new Vector3f(other.from);
         this.to = new Vector3f(other.to);
         this.thickness = other.thickness;
@@ -43,6 +63,7 @@ public class ModelLine implements ModelComponent {
 
     public ModelLine translation(final Vector3f translation) {
         this.translation = translation;
+        this.version++;
         return this;
     }
     /**
@@ -50,6 +71,7 @@ public class ModelLine implements ModelComponent {
      */
     public ModelLine from(final Vector3f from) {
         this.from = from;
+        this.version++;
         return this;
     }
     /**
@@ -63,6 +85,7 @@ public class ModelLine implements ModelComponent {
      */
     public ModelLine to(final Vector3f to) {
         this.to = to;
+        this.version++;
         return this;
     }
     /**
@@ -76,6 +99,7 @@ public class ModelLine implements ModelComponent {
      */
     public ModelLine thickness(final float thickness) {
         this.thickness = thickness;
+        this.version++;
         return this;
     }
     /**
@@ -83,6 +107,7 @@ public class ModelLine implements ModelComponent {
      */
     public ModelLine extraLength(final float extraLength) {
         this.extraLength = extraLength;
+        this.version++;
         return this;
     }
 
@@ -90,7 +115,8 @@ public class ModelLine implements ModelComponent {
      * @param roll The angle by which the line should be rotated about its length
      */
     public ModelLine roll(final double roll) {
-        this.roll = extraLength;
+        this.roll = roll;
+        this.version++;
         return this;
     }
 
@@ -122,22 +148,75 @@ public class ModelLine implements ModelComponent {
         return this;
     }
 
+    /**
+     * Rotates the matrix so that the local Z axis follows the line, then applies the roll
+     */
+    private @NotNull Matrix4f orient(@NotNull final Matrix4f matrix) {
+        TransformationUtils.lookAlong(matrix, to.x - from.x, to.y - from.y, to.z - from.z);
+        return roll == 0 ? matrix : matrix.rotateZ((float) roll);
+    }
+    private float getLength() {
+        return from.distance(to) + extraLength;
+    }
+    private @NotNull Matrix4f getCachedMatrix() {
+        if (matrix == null) {
+            matrix = new Matrix4f();
+        }
+        if (matrixVersion != version) {
+            // Written into the existing matrix, as lines following moving targets are recalculated very often (so views of it are live)
+            matrix.translation(
+                    (from.x + to.x) * 0.5F + translation.x,
+                    (from.y + to.y) * 0.5F + translation.y,
+                    (from.z + to.z) * 0.5F + translation.z);
+            orient(matrix)
+                    .scale(thickness, thickness, getLength())
+                    .translate(-0.5F, -0.5F, -0.5F);
+            matrixVersion = version;
+        }
+        return matrix;
+    }
+    private @NotNull Transformation getCachedTransformation() {
+        if (transformation == null || transformationVersion != version) {
+            final Matrix4f rotation = orient(new Matrix4f());
+            final Vector3f scale = new Vector3f(thickness, thickness, getLength());
+            // Equivalent to translating by -0.5 on each axis after scaling, as buildForBlockDisplay does
+            final Vector3f offset = rotation.transformDirection(new Vector3f(scale).mul(-0.5F));
+            final Vector3f midpoint = TransformationUtils.getMidpoint(from, to).add(translation).add(offset);
+            transformation = new Transformation(midpoint, rotation.getNormalizedRotation(new Quaternionf()), scale, new Quaternionf());
+            transformationVersion = version;
+        }
+        return transformation;
+    }
+
     @Override
     public Matrix4f getMatrix() {
-        final Vector3f midpoint = TransformationUtils.getMidpoint(from, to).add(translation);
-        return new TransformationMatrixBuilder()
-                .translate(midpoint)
-                .lookAlong(from, to)
-                .rotate(0, 0, roll)
-                .scale(new Vector3f(thickness, thickness, from.distance(to) + extraLength))
-                .buildForBlockDisplay();
+        return new Matrix4f(getCachedMatrix());
+    }
+    @Override
+    public Matrix4fc getMatrixView() {
+        return getCachedMatrix();
+    }
+    @Override
+    public ModelLine copy() {
+        return new ModelLine(this);
+    }
+    @Override
+    public int getMatrixVersion() {
+        return version;
     }
     @Override
     public void updateMatrix(final @NotNull Display display) {
         if (!(display instanceof final BlockDisplay blockDisplay)) {
             throw new IllegalArgumentException("Must provide a BlockDisplay");
         }
-        blockDisplay.setTransformationMatrix(getMatrix());
+        blockDisplay.setTransformationMatrix(getCachedMatrix());
+    }
+    @Override
+    public void updateTransformation(final @NotNull Display display) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        blockDisplay.setTransformation(getCachedTransformation());
     }
     @Override
     public void update(final @NotNull Display display) {
@@ -147,10 +226,29 @@ public class ModelLine implements ModelComponent {
         main.transformation(getMatrix()).update(blockDisplay);
     }
     @Override
+    public void update(final @NotNull Display display, final @NotNull DisplayStateCache cache) {
+        if (!(display instanceof final BlockDisplay blockDisplay)) {
+            throw new IllegalArgumentException("Must provide a BlockDisplay");
+        }
+        main.transformation(getMatrix()).update(blockDisplay, cache);
+    }
+    @Override
     public BlockDisplay build(@NotNull final Location origin) {
         return main.transformation(getMatrix()).build(origin);
     }
     @Override
+    public BlockDisplay build(@NotNull final Location origin, @NotNull final DisplayPool pool) {
+        return main.transformation(getMatrix()).build(origin, pool);
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location origin) {
+        return main.transformation(getMatrix()).buildVirtual(origin);
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        main.transformation(getMatrix()).updateVirtual(display);
+    }
+    @Override
     public BlockDisplay build(@NotNull final Block block) {
         return build(block.getLocation());
     }
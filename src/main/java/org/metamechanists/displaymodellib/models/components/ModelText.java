@@ -1,5 +1,6 @@
 package org.metamechanists.displaymodellib.models.components;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Color;
@@ -10,15 +11,22 @@ import org.bukkit.entity.Display;
 import org.bukkit.entity.Display.Billboard;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.entity.TextDisplay.TextAlignment;
+import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
 import org.joml.Quaterniond;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
 import org.joml.Vector3f;
+import org.metamechanists.displaymodellib.builders.DisplayPool;
+import org.metamechanists.displaymodellib.builders.DisplayStateCache;
 import org.metamechanists.displaymodellib.builders.TextDisplayBuilder;
+import org.metamechanists.displaymodellib.text.TemplatedText;
 import org.metamechanists.displaymodellib.transformations.TransformationMatrixBuilder;
 import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+import org.metamechanists.displaymodellib.virtual.VirtualDisplay;
 
 
 @SuppressWarnings({"unused", "WeakerAccess"})
@@ -26,6 +34,14 @@ import org.metamechanists.displaymodellib.transformations.TransformationUtils;
 public class ModelText implements ModelComponent {
     private final TextDisplayBuilder main;
     private final TransformationMatrixBuilder matrixBuilder;
+    @Getter(AccessLevel.NONE)
+    private Matrix4f matrix;
+    @Getter(AccessLevel.NONE)
+    private int matrixVersion = -1;
+    @Getter(AccessLevel.NONE)
+    private Transformation transformation;
+    @Getter(AccessLevel.NONE)
+    private int transformationVersion = -1;
 
     public ModelText() {
         this.main = new TextDisplayBuilder();
@@ -320,6 +336,10 @@ public class ModelText implements ModelComponent {
         main.text(text);
         return this;
     }
+    public ModelText text(@NotNull final TemplatedText text) {
+        main.text(text);
+        return this;
+    }
     /**
      * Default is centered
      */
@@ -352,16 +372,55 @@ public class ModelText implements ModelComponent {
         return this;
     }
 
+    private @NotNull Matrix4f getCachedMatrix() {
+        if (matrix == null || matrixVersion != matrixBuilder.getVersion()) {
+            matrix = matrixBuilder.buildForBlockDisplay();
+            matrixVersion = matrixBuilder.getVersion();
+        }
+        return matrix;
+    }
+    private @Nullable Transformation getCachedTransformation() {
+        if (transformationVersion != matrixBuilder.getVersion()) {
+            transformation = matrixBuilder.buildTransformationForBlockDisplay();
+            transformationVersion = matrixBuilder.getVersion();
+        }
+        return transformation;
+    }
+
     @Override
     public Matrix4f getMatrix() {
-        return matrixBuilder.buildForBlockDisplay();
+        return new Matrix4f(getCachedMatrix());
+    }
+    @Override
+    public Matrix4fc getMatrixView() {
+        return getCachedMatrix();
+    }
+    @Override
+    public ModelText copy() {
+        return new ModelText(this);
+    }
+    @Override
+    public int getMatrixVersion() {
+        return matrixBuilder.getVersion();
     }
     @Override
     public void updateMatrix(final @NotNull Display display) {
         if (!(display instanceof final TextDisplay textDisplay)) {
             throw new IllegalArgumentException("Must provide a TextDisplay");
         }
-        textDisplay.setTransformationMatrix(getMatrix());
+        textDisplay.setTransformationMatrix(getCachedMatrix());
+    }
+    @Override
+    public void updateTransformation(final @NotNull Display display) {
+        if (!(display instanceof final TextDisplay textDisplay)) {
+            throw new IllegalArgumentException("Must provide a TextDisplay");
+        }
+        final Transformation cachedTransformation = getCachedTransformation();
+        if (cachedTransformation == null) {
+            textDisplay.setTransformationMatrix(getCachedMatrix());
+            return;
+        }
+        textDisplay.setTransformation(cachedTransformation);
     }
     @Override
     public void update(final @NotNull Display display) {
@@ -371,10 +430,29 @@ public class ModelText implements ModelComponent {
         main.transformation(getMatrix()).update(textDisplay);
     }
     @Override
+    public void update(final @NotNull Display display, final @NotNull DisplayStateCache cache) {
+        if (!(display instanceof final TextDisplay textDisplay)) {
+            throw new IllegalArgumentException("Must provide a TextDisplay");
+        }
+        main.transformation(getMatrix()).update(textDisplay, cache);
+    }
+    @Override
     public TextDisplay build(@NotNull final Location origin) {
         return main.transformation(getMatrix()).build(origin);
     }
     @Override
+    public TextDisplay build(@NotNull final Location origin, @NotNull final DisplayPool pool) {
+        return main.transformation(getMatrix()).build(origin, pool);
+    }
+    @Override
+    public VirtualDisplay buildVirtual(@NotNull final Location origin) {
+        return main.transformation(getMatrix()).buildVirtual(origin);
+    }
+    @Override
+    public void updateVirtual(@NotNull final VirtualDisplay display) {
+        main.transformation(getMatrix()).updateVirtual(display);
+    }
+    @Override
     public TextDisplay build(@NotNull final Block block) {
         return build(block.getLocation());
     }
@@ -0,0 +1,109 @@
+package org.metamechanists.displaymodellib.text;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.bukkit.entity.TextDisplay;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+
+/**
+ * The values of the slots in a {@link TextTemplate}, for a single display
+ * Setting a slot to the value it already shows does nothing, and the text is only rebuilt (from the cached components of every part) when a slot has actually changed
+ * Not thread safe. {@link java.text.NumberFormat} is not thread safe either, so texts created from the same template should be used on the same thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class TemplatedText {
+    private final Object[] parts;
+    private final TextTemplate.Slot[] slots;
+    private final String[] values;
+    private final double[] numbers;
+    private final Component[] rendered;
+    private Component text;
+    private Component applied;
+
+    TemplatedText(@NotNull final Object[] parts, @NotNull final TextTemplate.Slot[] slots) {
+        this.parts = parts;
+        this.slots = slots;
+        this.values = new String[slots.length];
+        this.numbers = new double[slots.length];
+        this.rendered = new Component[slots.length];
+        Arrays.fill(values, "");
+        Arrays.fill(numbers, Double.NaN);
+    }
+
+    private @NotNull TextTemplate.Slot getSlot(@NotNull final String name) {
+        for (final TextTemplate.Slot slot : slots) {
+            if (slot.name.equals(name)) {
+                return slot;
+            }
+        }
+        throw new IllegalArgumentException("Template has no slot named " + name);
+    }
+
+    private void setValue(final int index, @NotNull final String value) {
+        if (value.equals(values[index])) {
+            return;
+        }
+        values[index] = value;
+        rendered[index] = null;
+        text = null;
+    }
+
+    public TemplatedText set(@NotNull final String name, @NotNull final String value) {
+        setValue(getSlot(name).index, value);
+        return this;
+    }
+    /**
+     * Sets a number slot. The value is ignored if it is within the slot's threshold of the value currently shown
+     */
+    public TemplatedText set(@NotNull final String name, final double value) {
+        final TextTemplate.Slot slot = getSlot(name);
+        if (slot.format == null) {
+            throw new IllegalArgumentException("Slot " + name + " is not a number slot");
+        }
+        final double previous = numbers[slot.index];
+        if (!Double.isNaN(previous) && Math.abs(value - previous) <= slot.threshold * Math.abs(previous)) {
+            return this;
+        }
+        numbers[slot.index] = value;
+        setValue(slot.index, slot.format.format(value));
+        return this;
+    }
+
+    /**
+     * @return The text with the current values of every slot. Only rebuilt if a slot has changed since the last call
+     */
+    public @NotNull Component getText() {
+        if (text == null) {
+            final TextComponent.Builder builder = Component.text();
+            for (final Object part : parts) {
+                if (part instanceof final TextTemplate.Slot slot) {
+                    if (rendered[slot.index] == null) {
+                        rendered[slot.index] = Component.text(values[slot.index], slot.style);
+                    }
+                    builder.append(rendered[slot.index]);
+                } else {
+                    builder.append((Component) part);
+                }
+            }
+            text = builder.build();
+        }
+        return text;
+    }
+
+    /**
+     * Sets the display's text if it differs from the text last applied by this object
+     * @return Whether the text was sent
+     */
+    public boolean apply(@NotNull final TextDisplay display) {
+        final Component current = getText();
+        if (current == applied || current.equals(applied)) {
+            return false;
+        }
+        display.text(current);
+        applied = current;
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package org.metamechanists.displaymodellib.text;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.Style;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * A line of text made up of static parts and named slots, for example "Energy: [energy] / [capacity] J"
+ * The static parts are only turned into components once, and each {@link TemplatedText} created from the template only re-renders the slots whose values have changed
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class TextTemplate {
+    private final List<Object> parts = new ArrayList<>();
+    private final List<Slot> slots = new ArrayList<>();
+
+    /**
+     * Adds a static part
+     */
+    public TextTemplate text(@NotNull final String text) {
+        return text(Component.text(text));
+    }
+    /**
+     * Adds a static part
+     */
+    public TextTemplate text(@NotNull final Component text) {
+        parts.add(text);
+        return this;
+    }
+
+    /**
+     * Adds a slot which is set to a string
+     */
+    public TextTemplate slot(@NotNull final String name) {
+        return slot(name, Style.empty());
+    }
+    /**
+     * Adds a slot which is set to a string
+     */
+    public TextTemplate slot(@NotNull final String name, @NotNull final Style style) {
+        return addSlot(new Slot(name, slots.size(), style, null, 0));
+    }
+
+    /**
+     * Adds a slot which is set to a number
+     */
+    public TextTemplate number(@NotNull final String name, @NotNull final NumberFormat format) {
+        return number(name, format, 0, Style.empty());
+    }
+    /**
+     * Adds a slot which is set to a number
+     * @param threshold The slot is only re-rendered when the value changes by more than this fraction of the previous value, eg 0.01 for 1%
+     */
+    public TextTemplate number(@NotNull final String name, @NotNull final NumberFormat format, final double threshold) {
+        return number(name, format, threshold, Style.empty());
+    }
+    /**
+     * Adds a slot which is set to a number
+     * @param threshold The slot is only re-rendered when the value changes by more than this fraction of the previous value, eg 0.01 for 1%
+     */
+    public TextTemplate number(@NotNull final String name, @NotNull final NumberFormat format, final double threshold, @NotNull final Style style) {
+        return addSlot(new Slot(name, slots.size(), style, format, threshold));
+    }
+
+    private TextTemplate addSlot(@NotNull final Slot slot) {
+        if (slots.stream().anyMatch(other -> other.name.equals(slot.name))) {
+            throw new IllegalArgumentException("Template already has a slot named " + slot.name);
+        }
+        slots.add(slot);
+        parts.add(slot);
+        return this;
+    }
+
+    /**
+     * Creates a new set of values for the template. Changing the template afterwards does not affect texts which have already been created
+     * Each display should have its own {@link TemplatedText}
+     */
+    public @NotNull TemplatedText create() {
+        return new TemplatedText(parts.toArray(), slots.toArray(new Slot[0]));
+    }
+
+    static final class Slot {
+        final String name;
+        final int index;
+        final Style style;
+        final NumberFormat format;
+        final double threshold;
+
+        private Slot(@NotNull final String name, final int index, @NotNull final Style style, @Nullable final NumberFormat format, final double threshold) {
+            this.name = name;
+            this.index = index;
+            this.style = style;
+            this.format = format;
+            this.threshold = threshold;
+        }
+    }
+}
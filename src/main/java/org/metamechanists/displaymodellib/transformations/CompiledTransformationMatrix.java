@@ -0,0 +1,247 @@
+package org.metamechanists.displaymodellib.transformations;
+
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+
+/**
+ * A {@link TransformationMatrixBuilder} flattened into a primitive array of operations.
+ * Evaluating it writes straight into a caller-supplied matrix using JOML's in-place operations, so it does not allocate.
+ * The values of each component are captured when compiling, so later changes to the builder are not reflected.
+ * Instances are immutable and can be shared between threads.
+ */
+@SuppressWarnings("unused")
+public final class CompiledTransformationMatrix {
+    static final byte TRANSLATE = 0;
+    static final byte SCALE = 1;
+    static final byte LINEAR = 2;
+    static final byte AFFINE = 3;
+    private static final int[] OPERAND_COUNTS = {3, 3, 9, 12};
+    private static final float EPSILON = 1.0E-5F;
+
+    private final byte[] operations;
+    private final float[] operands;
+
+    private CompiledTransformationMatrix(final byte @NotNull [] operations, final float @NotNull [] operands) {
+        this.operations = operations;
+        this.operands = operands;
+    }
+
+    /**
+     * @return The number of operations performed on each evaluation
+     */
+    public int size() {
+        return operations.length;
+    }
+
+    /**
+     * Evaluates the transformation into the given matrix, overwriting its previous contents
+     * @return dest
+     */
+    public @NotNull Matrix4f evaluate(@NotNull final Matrix4f dest) {
+        dest.identity();
+        return applyTo(dest);
+    }
+    /**
+     * @return A new matrix containing the transformation
+     */
+    public @NotNull Matrix4f evaluate() {
+        return evaluate(new Matrix4f());
+    }
+
+    /**
+     * Multiplies the given matrix by the transformation (ie: the transformation is applied after anything already in the matrix)
+     * @return matrix
+     */
+    public @NotNull Matrix4f applyTo(@NotNull final Matrix4f matrix) {
+        final float[] o = operands;
+        int i = 0;
+        for (final byte operation : operations) {
+            switch (operation) {
+                case TRANSLATE -> matrix.translate(o[i], o[i+1], o[i+2]);
+                case SCALE -> matrix.scale(o[i], o[i+1], o[i+2]);
+                case LINEAR -> matrix.mul3x3(o[i], o[i+1], o[i+2], o[i+3], o[i+4], o[i+5], o[i+6], o[i+7], o[i+8]);
+                case AFFINE -> matrix
+                        .translate(o[i+9], o[i+10], o[i+11])
+                        .mul3x3(o[i], o[i+1], o[i+2], o[i+3], o[i+4], o[i+5], o[i+6], o[i+7], o[i+8]);
+                default -> throw new IllegalStateException("Unknown operation " + operation);
+            }
+            i += OPERAND_COUNTS[operation];
+        }
+        return matrix;
+    }
+
+    /**
+     * Folds the operations into a translation, left rotation, scale and right rotation, which is the form displays store their transformation in.
+     * Setting this directly on a display means the server does not have to decompose a matrix.
+     * @return The equivalent transformation, or null if the operations cannot be folded (eg: a non-uniform scale after a rotation, which would need shearing)
+     */
+    public @Nullable Transformation decompose() {
+        final Vector3f translation = new Vector3f();
+        final Quaternionf leftRotation = new Quaternionf();
+        final Vector3f scale = new Vector3f(1);
+        final Quaternionf rightRotation = new Quaternionf();
+        final Vector3f vector = new Vector3f();
+        final Matrix3f linear = new Matrix3f();
+        final Quaternionf rotation = new Quaternionf();
+
+        final float[] o = operands;
+        int i = 0;
+        for (final byte operation : operations) {
+            switch (operation) {
+                case TRANSLATE -> foldTranslation(vector.set(o[i], o[i+1], o[i+2]), translation, leftRotation, scale, rightRotation);
+                case SCALE -> {
+                    if (!foldScale(o[i], o[i+1], o[i+2], leftRotation, scale, rightRotation)) {
+                        return null;
+                    }
+                }
+                case LINEAR, AFFINE -> {
+                    if (operation == AFFINE) {
+                        foldTranslation(vector.set(o[i+9], o[i+10], o[i+11]), translation, leftRotation, scale, rightRotation);
+                    }
+                    linear.set(o[i], o[i+1], o[i+2], o[i+3], o[i+4], o[i+5], o[i+6], o[i+7], o[i+8]);
+                    if (!foldLinear(linear, rotation, leftRotation, scale, rightRotation)) {
+                        return null;
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown operation " + operation);
+            }
+            i += OPERAND_COUNTS[operation];
+        }
+
+        return new Transformation(translation, leftRotation, scale, rightRotation);
+    }
+
+    // T * L * S * R * T(v) = T(t + L * S * R * v) * L * S * R
+    private static void foldTranslation(@NotNull final Vector3f vector, @NotNull final Vector3f translation,
+                                        @NotNull final Quaternionf leftRotation, @NotNull final Vector3f scale, @NotNull final Quaternionf rightRotation) {
+        rightRotation.transform(vector);
+        vector.mul(scale);
+        leftRotation.transform(vector);
+        translation.add(vector);
+    }
+
+    // S * R * S' can only be rewritten as S'' * R'' if R is the identity, or one of the scales is uniform
+    private static boolean foldScale(final float x, final float y, final float z,
+                                     @NotNull final Quaternionf leftRotation, @NotNull final Vector3f scale, @NotNull final Quaternionf rightRotation) {
+        if (isIdentity(rightRotation)) {
+            scale.mul(x, y, z);
+            return true;
+        }
+        if (x == y && y == z) {
+            scale.mul(x);
+            return true;
+        }
+        if (scale.x == scale.y && scale.y == scale.z) {
+            leftRotation.mul(rightRotation);
+            rightRotation.identity();
+            scale.set(scale.x * x, scale.x * y, scale.x * z);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean foldLinear(@NotNull final Matrix3f linear, @NotNull final Quaternionf rotation,
+                                      @NotNull final Quaternionf leftRotation, @NotNull final Vector3f scale, @NotNull final Quaternionf rightRotation) {
+        if (isRotation(linear)) {
+            rightRotation.mul(linear.getNormalizedRotation(rotation));
+            return true;
+        }
+        if (isDiagonal(linear)) {
+            return foldScale(linear.m00(), linear.m11(), linear.m22(), leftRotation, scale, rightRotation);
+        }
+        return false;
+    }
+
+    private static boolean isIdentity(@NotNull final Quaternionf quaternion) {
+        return Math.abs(quaternion.x) < EPSILON && Math.abs(quaternion.y) < EPSILON && Math.abs(quaternion.z) < EPSILON;
+    }
+
+    private static boolean isDiagonal(@NotNull final Matrix3f matrix) {
+        return Math.abs(matrix.m01()) < EPSILON && Math.abs(matrix.m02()) < EPSILON
+                && Math.abs(matrix.m10()) < EPSILON && Math.abs(matrix.m12()) < EPSILON
+                && Math.abs(matrix.m20()) < EPSILON && Math.abs(matrix.m21()) < EPSILON;
+    }
+
+    private static boolean isRotation(@NotNull final Matrix3f matrix) {
+        final float length0 = matrix.m00()*matrix.m00() + matrix.m01()*matrix.m01() + matrix.m02()*matrix.m02();
+        final float length1 = matrix.m10()*matrix.m10() + matrix.m11()*matrix.m11() + matrix.m12()*matrix.m12();
+        final float length2 = matrix.m20()*matrix.m20() + matrix.m21()*matrix.m21() + matrix.m22()*matrix.m22();
+        final float dot01 = matrix.m00()*matrix.m10() + matrix.m01()*matrix.m11() + matrix.m02()*matrix.m12();
+        final float dot02 = matrix.m00()*matrix.m20() + matrix.m01()*matrix.m21() + matrix.m02()*matrix.m22();
+        final float dot12 = matrix.m10()*matrix.m20() + matrix.m11()*matrix.m21() + matrix.m12()*matrix.m22();
+        final float tolerance = 1.0E-4F;
+        return Math.abs(length0 - 1) < tolerance && Math.abs(length1 - 1) < tolerance && Math.abs(length2 - 1) < tolerance
+                && Math.abs(dot01) < tolerance && Math.abs(dot02) < tolerance && Math.abs(dot12) < tolerance
+                && matrix.determinant() > 0;
+    }
+
+    /**
+     * Collects the operations emitted by each {@link org.metamechanists.displaymodellib.transformations.components.TransformationMatrixComponent}
+     */
+    public static final class Compiler {
+        private byte[] operations = new byte[8];
+        private float[] operands = new float[32];
+        private int operationCount;
+        private int operandCount;
+
+        Compiler() {}
+
+        public void translate(final float x, final float y, final float z) {
+            if (x == 0 && y == 0 && z == 0) {
+                return;
+            }
+            add(TRANSLATE, x, y, z);
+        }
+
+        public void scale(final float x, final float y, final float z) {
+            if (x == 1 && y == 1 && z == 1) {
+                return;
+            }
+            add(SCALE, x, y, z);
+        }
+
+        /**
+         * Emits an arbitrary affine transformation. The matrix is read once, so it may be reused afterwards.
+         */
+        public void transform(@NotNull final Matrix4fc matrix) {
+            final boolean translates = matrix.m30() != 0 || matrix.m31() != 0 || matrix.m32() != 0;
+            if (translates) {
+                add(AFFINE,
+                        matrix.m00(), matrix.m01(), matrix.m02(),
+                        matrix.m10(), matrix.m11(), matrix.m12(),
+                        matrix.m20(), matrix.m21(), matrix.m22(),
+                        matrix.m30(), matrix.m31(), matrix.m32());
+            } else {
+                add(LINEAR,
+                        matrix.m00(), matrix.m01(), matrix.m02(),
+                        matrix.m10(), matrix.m11(), matrix.m12(),
+                        matrix.m20(), matrix.m21(), matrix.m22());
+            }
+        }
+
+        private void add(final byte operation, final float @NotNull ... values) {
+            if (operationCount == operations.length) {
+                operations = Arrays.copyOf(operations, operations.length * 2);
+            }
+            if (operandCount + values.length > operands.length) {
+                operands = Arrays.copyOf(operands, Math.max(operands.length * 2, operandCount + values.length));
+            }
+            operations[operationCount++] = operation;
+            System.arraycopy(values, 0, operands, operandCount, values.length);
+            operandCount += values.length;
+        }
+
+        @NotNull CompiledTransformationMatrix compile() {
+            return new CompiledTransformationMatrix(Arrays.copyOf(operations, operationCount), Arrays.copyOf(operands, operandCount));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.metamechanists.displaymodellib.transformations;
+
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+
+/**
+ * Stores many matrices in a single direct buffer, laid out as structure-of-arrays (all m00 values, then all m01 values, and so on, in JOML's column-major order)
+ * This avoids one object per matrix when evaluating or transforming large numbers of components at once
+ * The bulk operations are plain loops over each plane, which the JIT is able to vectorise without the incubating Vector API
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class MatrixBatch {
+    private static final int ELEMENTS = 16;
+    private final int capacity;
+    private final FloatBuffer buffer;
+
+    public MatrixBatch(final int capacity) {
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity * ELEMENTS * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+    /**
+     * @return A view of the underlying buffer. Element e (0-15, column-major) of matrix i is at e * {@link #capacity()} + i
+     */
+    public @NotNull FloatBuffer getBuffer() {
+        return buffer.duplicate();
+    }
+
+    public float get(final int index, final int element) {
+        return buffer.get(element * capacity + index);
+    }
+
+    public MatrixBatch set(final int index, @NotNull final Matrix4fc matrix) {
+        final int c = capacity;
+        buffer.put(index, matrix.m00()).put(c + index, matrix.m01()).put(2*c + index, matrix.m02()).put(3*c + index, matrix.m03());
+        buffer.put(4*c + index, matrix.m10()).put(5*c + index, matrix.m11()).put(6*c + index, matrix.m12()).put(7*c + index, matrix.m13());
+        buffer.put(8*c + index, matrix.m20()).put(9*c + index, matrix.m21()).put(10*c + index, matrix.m22()).put(11*c + index, matrix.m23());
+        buffer.put(12*c + index, matrix.m30()).put(13*c + index, matrix.m31()).put(14*c + index, matrix.m32()).put(15*c + index, matrix.m33());
+        return this;
+    }
+    public @NotNull Matrix4f get(final int index, @NotNull final Matrix4f dest) {
+        final int c = capacity;
+        return dest.set(
+                buffer.get(index), buffer.get(c + index), buffer.get(2*c + index), buffer.get(3*c + index),
+                buffer.get(4*c + index), buffer.get(5*c + index), buffer.get(6*c + index), buffer.get(7*c + index),
+                buffer.get(8*c + index), buffer.get(9*c + index), buffer.get(10*c + index), buffer.get(11*c + index),
+                buffer.get(12*c + index), buffer.get(13*c + index), buffer.get(14*c + index), buffer.get(15*c + index));
+    }
+
+    /**
+     * Evaluates each compiled transformation into the matrix with the same index
+     * @param scratch Used to evaluate each transformation before it is copied into the buffer
+     */
+    public void evaluate(@NotNull final CompiledTransformationMatrix @NotNull [] transformations, @NotNull final Matrix4f scratch) {
+        for (int i = 0; i < transformations.length; i++) {
+            set(i, transformations[i].evaluate(scratch));
+        }
+    }
+
+    /**
+     * Computes the block display matrix of a line between each pair of points, equivalent to a {@link org.metamechanists.displaymodellib.models.components.ModelLine} with no roll
+     * The orientation is built directly from the direction of each line, so no trigonometry is needed
+     */
+    public void setLines(@NotNull final VectorBatch from, @NotNull final VectorBatch to, final float thickness, final float extraLength, final int count) {
+        final int c = capacity;
+        for (int i = 0; i < count; i++) {
+            final float fromX = from.x(i);
+            final float fromY = from.y(i);
+            final float fromZ = from.z(i);
+            final float dx = to.x(i) - fromX;
+            final float dy = to.y(i) - fromY;
+            final float dz = to.z(i) - fromZ;
+            final float length = (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+
+            // Local Z axis follows the line, or stays as world Z for a zero-length line like in ModelLine
+            final boolean empty = length == 0;
+            final float zX = empty ? 0 : dx / length;
+            final float zY = empty ? 0 : dy / length;
+            final float zZ = empty ? 1 : dz / length;
+
+            // Local X axis is horizontal (no roll), unless the line is vertical, in which case it is world X
+            final float horizontal = (float) Math.sqrt(zX*zX + zZ*zZ);
+            final float xX = horizontal > 1.0E-6F ? zZ / horizontal : 1;
+            final float xZ = horizontal > 1.0E-6F ? -zX / horizontal : 0;
+
+            // Local Y axis = Z cross X
+            final float yX = zY * xZ;
+            final float yY = zZ * xX - zX * xZ;
+            final float yZ = -zY * xX;
+
+            final float zScale = length + extraLength;
+            final float m00 = xX * thickness;
+            final float m02 = xZ * thickness;
+            final float m10 = yX * thickness;
+            final float m11 = yY * thickness;
+            final float m12 = yZ * thickness;
+            final float m20 = zX * zScale;
+            final float m21 = zY * zScale;
+            final float m22 = zZ * zScale;
+
+            // Translate to the midpoint, then shift by half a block along each scaled axis so the display is centered
+            final float tX = fromX + dx*0.5F - 0.5F*(m00 + m10 + m20);
+            final float tY = fromY + dy*0.5F - 0.5F*(m11 + m21);
+            final float tZ = fromZ + dz*0.5F - 0.5F*(m02 + m12 + m22);
+
+            buffer.put(index(0, i), m00).put(index(1, i), 0).put(index(2, i), m02).put(index(3, i), 0);
+            buffer.put(index(4, i), m10).put(index(5, i), m11).put(index(6, i), m12).put(index(7, i), 0);
+            buffer.put(index(8, i), m20).put(index(9, i), m21).put(index(10, i), m22).put(index(11, i), 0);
+            buffer.put(index(12, i), tX).put(index(13, i), tY).put(index(14, i), tZ).put(index(15, i), 1);
+        }
+    }
+
+    /**
+     * Replaces each of the first count matrices M with left * M (ie: applies left on top of every matrix, for example to move a whole network)
+     */
+    public void mulLeft(@NotNull final Matrix4fc left, final int count) {
+        final float[] l = left.get(new float[ELEMENTS]);
+        for (int column = 0; column < 4; column++) {
+            final int offset = column * 4 * capacity;
+            for (int i = 0; i < count; i++) {
+                final float c0 = buffer.get(offset + i);
+                final float c1 = buffer.get(offset + capacity + i);
+                final float c2 = buffer.get(offset + 2*capacity + i);
+                final float c3 = buffer.get(offset + 3*capacity + i);
+                for (int row = 0; row < 4; row++) {
+                    buffer.put(offset + row*capacity + i, l[row]*c0 + l[4 + row]*c1 + l[8 + row]*c2 + l[12 + row]*c3);
+                }
+            }
+        }
+    }
+
+    /**
+     * Transforms each of the first count positions by the matrix with the same index
+     */
+    public void transformPositions(@NotNull final VectorBatch positions, @NotNull final VectorBatch dest, final int count) {
+        for (int i = 0; i < count; i++) {
+            final float x = positions.x(i);
+            final float y = positions.y(i);
+            final float z = positions.z(i);
+            dest.set(i,
+                    get(i, 0)*x + get(i, 4)*y + get(i, 8)*z + get(i, 12),
+                    get(i, 1)*x + get(i, 5)*y + get(i, 9)*z + get(i, 13),
+                    get(i, 2)*x + get(i, 6)*y + get(i, 10)*z + get(i, 14));
+        }
+    }
+
+    private int index(final int element, final int index) {
+        return element * capacity + index;
+    }
+}
@@ -2,7 +2,9 @@ package org.metamechanists.displaymodellib.transformations;
 
 import org.bukkit.Location;
 import org.bukkit.block.BlockFace;
+import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Matrix4f;
 import org.joml.Quaterniond;
 import org.joml.Vector3d;
@@ -26,6 +28,7 @@ public class TransformationMatrixBuilder {
     private static final Vector3f BLOCK_DISPLAY_ADJUSTMENT = new Vector3f(-0.5F);
     private static final Vector3f TEXT_DISPLAY_ADJUSTMENT = new Vector3f(-0.5F, 0, -0.5F);
     private final Deque<TransformationMatrixComponent> components;
+    private int version;
 
     public TransformationMatrixBuilder() {
         this.components = new ArrayDeque<>();
@@ -33,13 +36,26 @@ public class TransformationMatrixBuilder {
 
     public TransformationMatrixBuilder(@NotNull final TransformationMatrixBuilder other) {
         this.components = new ArrayDeque<>(other.components);
+        this.version = other.version;
+    }
+
+    /**
+     * Incremented every time a component is added, so a matrix built from this builder can be cached until the version changes
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private void add(@NotNull final TransformationMatrixComponent component) {
+        components.addLast(component);
+        version++;
     }
 
     /**
      * Represents a translation in X, Y, and Z.
      */
     public TransformationMatrixBuilder translate(final @NotNull Vector3f translation) {
-        components.addLast(new Translation(translation));
+        add(new Translation(translation));
         return this;
     }
     /**
@@ -54,7 +70,7 @@ public class TransformationMatrixBuilder {
      * Represents a scale transformation in X, Y, and Z.
      */
     public TransformationMatrixBuilder scale(final @NotNull Vector3f scale) {
-        components.addLast(new Scale(scale));
+        add(new Scale(scale));
         return this;
     }
     /**
@@ -70,14 +86,14 @@ public class TransformationMatrixBuilder {
      * The rotation takes a Vector3d instead of a Vector3f because most rotations are in terms of Math.PI, which is a double
      */
     public TransformationMatrixBuilder rotate(final @NotNull Vector3d rotation) {
-        components.addLast(new Rotation(rotation));
+        add(new Rotation(rotation));
         return this;
     }
     /**
      * Represents a rotation by a quaternion
      */
     public TransformationMatrixBuilder rotate(final @NotNull Quaterniond quaternion) {
-        components.addLast(new Rotation(quaternion));
+        add(new Rotation(quaternion));
         return this;
     }
     /**
@@ -93,14 +109,14 @@ public class TransformationMatrixBuilder {
      * The rotation takes a Vector3d instead of a Vector3f because most rotations are in terms of Math.PI, which is a double
      */
     public TransformationMatrixBuilder rotateBackwards(final @NotNull Vector3d rotation) {
-        components.addLast(new RotationBackwards(rotation));
+        add(new RotationBackwards(rotation));
         return this;
     }
     /**
      * Represents a backward rotation by a quaternion
      */
     public TransformationMatrixBuilder rotateBackwards(final @NotNull Quaterniond quaternion) {
-        components.addLast(new RotationBackwards(quaternion));
+        add(new RotationBackwards(quaternion));
         return this;
     }
     /**
@@ -115,62 +131,112 @@ public class TransformationMatrixBuilder {
      * Represents a look-along transformation without any roll. To visualise what this transformation does, imagine a player in-game rotating their head.
      */
     public TransformationMatrixBuilder lookAlong(final @NotNull Vector3f direction) {
-        components.addLast(new LookAlong(direction));
+        add(new LookAlong(direction));
         return this;
     }
     /**
      * Represents a look-along transformation without any roll. To visualise what this transformation does, imagine a player in-game rotating their head.
      */
     public TransformationMatrixBuilder lookAlong(final @NotNull Location from, final @NotNull Location to) {
-        components.addLast(new LookAlong(from, to));
+        add(new LookAlong(from, to));
         return this;
     }
     /**
      * Represents a look-along transformation without any roll. To visualise what this transformation does, imagine a player in-game rotating their head.
      */
     public TransformationMatrixBuilder lookAlong(final @NotNull Vector3f from, final @NotNull Vector3f to) {
-        components.addLast(new LookAlong(from, to));
+        add(new LookAlong(from, to));
         return this;
     }
     /**
      * Represents a look-along transformation without any roll. To visualise what this transformation does, imagine a player in-game rotating their head.
      */
     public TransformationMatrixBuilder lookAlong(final @NotNull BlockFace face) {
-        components.addLast(new LookAlong(face.getDirection().toVector3f()));
+        add(new LookAlong(face.getDirection().toVector3f()));
         return this;
     }
 
-    private @NotNull Matrix4f build() {
-        final Matrix4f matrix = new Matrix4f();
-
+    private @NotNull Matrix4f build(@NotNull final Matrix4f matrix) {
         // Apply each transformation in turn
-        while (!components.isEmpty()) {
-            components.removeFirst().apply(matrix);
+        for (final TransformationMatrixComponent component : components) {
+            component.apply(matrix);
         }
 
         return matrix;
     }
 
+    private @NotNull CompiledTransformationMatrix.Compiler compiler() {
+        final CompiledTransformationMatrix.Compiler compiler = new CompiledTransformationMatrix.Compiler();
+        for (final TransformationMatrixComponent component : components) {
+            component.compile(compiler);
+        }
+        return compiler;
+    }
+
     /**
      * Adjusts the transformation so that the transformation acts on the center of the block display; otherwise it would act on a corner, which is usually less useful
      * @return The matrix representing the transformation formed by all the components
      */
     public @NotNull Matrix4f buildForBlockDisplay() {
-        TransformationMatrixBuilder builder =  new TransformationMatrixBuilder(this);
-        builder.components.addLast(new Translation(BLOCK_DISPLAY_ADJUSTMENT));
-        return builder.build();
+        return build(new Matrix4f()).translate(BLOCK_DISPLAY_ADJUSTMENT);
     }
     /**
      * Adjusts the transformation so that the transformation acts on the center of the block display; by default the Y-axis is shifted
      * @return The matrix representing the transformation formed by all the components
      */
     public @NotNull Matrix4f buildForItemDisplay() {
-        return new TransformationMatrixBuilder(this).build();
+        return build(new Matrix4f());
     }
     /**
      * @return The matrix representing the transformation formed by all the components, plus an adjustment for the text display
      */
     public @NotNull Matrix4f buildForTextDisplay() {
-        return new TransformationMatrixBuilder(this).build();
+        return build(new Matrix4f());
+    }
+
+    /**
+     * Compiles the components into a form that can be evaluated repeatedly without allocating
+     * @return The compiled equivalent of {@link #buildForBlockDisplay()}
+     */
+    public @NotNull CompiledTransformationMatrix compileForBlockDisplay() {
+        final CompiledTransformationMatrix.Compiler compiler = compiler();
+        compiler.translate(BLOCK_DISPLAY_ADJUSTMENT.x, BLOCK_DISPLAY_ADJUSTMENT.y, BLOCK_DISPLAY_ADJUSTMENT.z);
+        return compiler.compile();
+    }
+    /**
+     * Compiles the components into a form that can be evaluated repeatedly without allocating
+     * @return The compiled equivalent of {@link #buildForItemDisplay()}
+     */
+    public @NotNull CompiledTransformationMatrix compileForItemDisplay() {
+        return compiler().compile();
+    }
+    /**
+     * Compiles the components into a form that can be evaluated repeatedly without allocating
+     * @return The compiled equivalent of {@link #buildForTextDisplay()}
+     */
+    public @NotNull CompiledTransformationMatrix compileForTextDisplay() {
+        return compiler().compile();
+    }
+
+    /**
+     * Folds the components into a translation, left rotation, scale and right rotation, which avoids the server decomposing the matrix
+     * @return The transformation equivalent to {@link #buildForBlockDisplay()}, or null if the components cannot be folded
+     */
+    public @Nullable Transformation buildTransformationForBlockDisplay() {
+        return compileForBlockDisplay().decompose();
+    }
+    /**
+     * Folds the components into a translation, left rotation, scale and right rotation, which avoids the server decomposing the matrix
+     * @return The transformation equivalent to {@link #buildForItemDisplay()}, or null if the components cannot be folded
+     */
+    public @Nullable Transformation buildTransformationForItemDisplay() {
+        return compileForItemDisplay().decompose();
+    }
+    /**
+     * Folds the components into a translation, left rotation, scale and right rotation, which avoids the server decomposing the matrix
+     * @return The transformation equivalent to {@link #buildForTextDisplay()}, or null if the components cannot be folded
+     */
+    public @Nullable Transformation buildTransformationForTextDisplay() {
+        return compileForTextDisplay().decompose();
     }
 }
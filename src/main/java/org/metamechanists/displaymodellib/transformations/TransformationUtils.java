@@ -6,6 +6,8 @@ import org.bukkit.block.BlockFace;
 import org.bukkit.util.Transformation;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
 import org.joml.Vector3d;
 import org.joml.Vector3f;
 
@@ -70,6 +72,21 @@ public class TransformationUtils {
     public @NotNull Vector3f getMidpoint(@NotNull final Vector3f from, @NotNull final Vector3f to) {
         return new Vector3f(from).add(to).mul(0.5F);
     }
+    /**
+     * Applies a look-along transformation without any roll, using the same axis convention as {@link org.metamechanists.displaymodellib.transformations.components.LookAlong}
+     * The rotation is built directly from the direction, so no trigonometry is needed
+     */
+    public @NotNull Matrix4f lookAlong(@NotNull final Matrix4f matrix, final float x, final float y, final float z) {
+        final float horizontalSquared = x*x + z*z;
+        if (horizontalSquared == 0 && y == 0) {
+            return matrix;
+        }
+        if (horizontalSquared <= 1.0E-12F * (horizontalSquared + y*y)) {
+            // Straight up or down; the local X axis stays as world X
+            return matrix.rotateTowards(x, y, z, 0, 0, -Math.signum(y));
+        }
+        return matrix.rotateTowards(x, y, z, 0, 1, 0);
+    }
     public Matrix4f transformationToMatrix(@NotNull final Transformation transformation) {
         return new Matrix4f()
                 .translation(transformation.getTranslation())
@@ -77,6 +94,16 @@ public class TransformationUtils {
                 .scale(transformation.getScale())
                 .rotate(transformation.getRightRotation());
     }
+    /**
+     * Applies a rotation on top of the given transformation (ie: rotates the transformed display about its origin)
+     */
+    public @NotNull Transformation rotateTransformation(@NotNull final Quaternionfc rotation, @NotNull final Transformation transformation) {
+        return new Transformation(
+                rotation.transform(new Vector3f(transformation.getTranslation())),
+                new Quaternionf(rotation).mul(transformation.getLeftRotation()),
+                new Vector3f(transformation.getScale()),
+                new Quaternionf(transformation.getRightRotation()));
+    }
     public Vector3f dropPrecision(final @NotNull Vector3d vector) {
         return new Vector3f((float) vector.x, (float) vector.y, (float) vector.z);
     }
@@ -0,0 +1,130 @@
+package org.metamechanists.displaymodellib.transformations;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+
+/**
+ * Stores many vectors in a single direct buffer, laid out as structure-of-arrays (all X values, then all Y values, then all Z values)
+ * Batch equivalents of the {@link TransformationUtils} functions are provided, which avoid allocating a {@link Vector3f} per result
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class VectorBatch {
+    private static final int ELEMENTS = 3;
+    private final int capacity;
+    private final FloatBuffer buffer;
+
+    public VectorBatch(final int capacity) {
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity * ELEMENTS * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+    /**
+     * @return A view of the underlying buffer. X values start at 0, Y values at {@link #capacity()}, and Z values at 2 * {@link #capacity()}
+     */
+    public @NotNull FloatBuffer getBuffer() {
+        return buffer.duplicate();
+    }
+
+    public float x(final int index) {
+        return buffer.get(index);
+    }
+    public float y(final int index) {
+        return buffer.get(capacity + index);
+    }
+    public float z(final int index) {
+        return buffer.get(2*capacity + index);
+    }
+
+    public VectorBatch set(final int index, final float x, final float y, final float z) {
+        buffer.put(index, x);
+        buffer.put(capacity + index, y);
+        buffer.put(2*capacity + index, z);
+        return this;
+    }
+    public VectorBatch set(final int index, @NotNull final Vector3fc vector) {
+        return set(index, vector.x(), vector.y(), vector.z());
+    }
+    public @NotNull Vector3f get(final int index, @NotNull final Vector3f dest) {
+        return dest.set(x(index), y(index), z(index));
+    }
+
+    /**
+     * Batch equivalent of {@link TransformationUtils#getMidpoint(Vector3f, Vector3f)} for the first count vectors
+     */
+    public static void getMidpoints(@NotNull final VectorBatch from, @NotNull final VectorBatch to, @NotNull final VectorBatch dest, final int count) {
+        for (int plane = 0; plane < ELEMENTS; plane++) {
+            final int fromOffset = plane * from.capacity;
+            final int toOffset = plane * to.capacity;
+            final int destOffset = plane * dest.capacity;
+            for (int i = 0; i < count; i++) {
+                dest.buffer.put(destOffset + i, (from.buffer.get(fromOffset + i) + to.buffer.get(toOffset + i)) * 0.5F);
+            }
+        }
+    }
+
+    /**
+     * Batch equivalent of {@link TransformationUtils#getDisplacement(Vector3f, Vector3f)} for the first count vectors
+     */
+    public static void getDisplacements(@NotNull final VectorBatch from, @NotNull final VectorBatch to, @NotNull final VectorBatch dest, final int count) {
+        for (int plane = 0; plane < ELEMENTS; plane++) {
+            final int fromOffset = plane * from.capacity;
+            final int toOffset = plane * to.capacity;
+            final int destOffset = plane * dest.capacity;
+            for (int i = 0; i < count; i++) {
+                dest.buffer.put(destOffset + i, to.buffer.get(toOffset + i) - from.buffer.get(fromOffset + i));
+            }
+        }
+    }
+
+    /**
+     * Batch equivalent of {@link TransformationUtils#getDirection(Vector3f, Vector3f)} for the first count vectors
+     * @param distances If not null, receives the distance between each pair of vectors
+     */
+    public static void getDirections(@NotNull final VectorBatch from, @NotNull final VectorBatch to, @NotNull final VectorBatch dest,
+                                     @Nullable final FloatBuffer distances, final int count) {
+        getDisplacements(from, to, dest, count);
+        final FloatBuffer d = dest.buffer;
+        final int y = dest.capacity;
+        final int z = 2 * dest.capacity;
+        for (int i = 0; i < count; i++) {
+            final float dx = d.get(i);
+            final float dy = d.get(y + i);
+            final float dz = d.get(z + i);
+            final float length = (float) Math.sqrt(dx*dx + dy*dy + dz*dz);
+            final float inverseLength = 1.0F / length;
+            d.put(i, dx * inverseLength);
+            d.put(y + i, dy * inverseLength);
+            d.put(z + i, dz * inverseLength);
+            if (distances != null) {
+                distances.put(i, length);
+            }
+        }
+    }
+
+    /**
+     * Batch equivalent of {@link TransformationUtils#rotatedRadius(float, double)} for the first count angles
+     */
+    public static void rotatedRadius(final float radius, @NotNull final FloatBuffer yAngles, @NotNull final VectorBatch dest, final int count) {
+        final FloatBuffer d = dest.buffer;
+        final int y = dest.capacity;
+        final int z = 2 * dest.capacity;
+        for (int i = 0; i < count; i++) {
+            final double angle = yAngles.get(i);
+            d.put(i, (float) (radius * Math.sin(angle)));
+            d.put(y + i, 0);
+            d.put(z + i, (float) (radius * Math.cos(angle)));
+        }
+    }
+}
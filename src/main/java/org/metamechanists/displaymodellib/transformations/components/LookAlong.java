@@ -9,7 +9,7 @@ import org.metamechanists.displaymodellib.transformations.TransformationUtils;
 
 /**
  * LookAlong is slightly more complex than the other components. Bukkit's coordinate system does not work very well with regular JOML vectors in the context of LookAlong.
- * This means we cannot use JOML's LookAlong function, and instead must create our own by calculating the angles manually.
+ * This means we cannot use JOML's LookAlong function, and instead align the local Z axis with the direction while keeping the local X axis horizontal (ie: no roll).
  */
 public class LookAlong implements TransformationMatrixComponent {
     private final Vector3f direction;
@@ -24,15 +24,8 @@ public class LookAlong implements TransformationMatrixComponent {
         this.direction = TransformationUtils.getDirection(from, to);
     }
 
-    private float getAngleX() {
-        return (float) -Math.atan2(direction.y, Math.sqrt(direction.x*direction.x + direction.z*direction.z));
-    }
-    private float getAngleY() {
-        return (float) Math.atan2(direction.x, direction.z);
-    }
-
     @Override
     public void apply(@NotNull final Matrix4f matrix) {
-        matrix.mul(new Matrix4f().rotateY(getAngleY()).rotateX(getAngleX()));
+        TransformationUtils.lookAlong(matrix, direction.x, direction.y, direction.z);
     }
 }
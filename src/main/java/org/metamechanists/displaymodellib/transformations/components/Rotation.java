@@ -6,7 +6,6 @@ import org.joml.Matrix4f;
 import org.joml.Quaterniond;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
-import org.joml.Vector3f;
 
 
 public class Rotation implements TransformationMatrixComponent {
@@ -26,9 +25,9 @@ public class Rotation implements TransformationMatrixComponent {
     @Override
     public void apply(@NotNull final Matrix4f matrix) {
         if (vector != null) {
-            matrix.mul(new Matrix4f().rotateXYZ(new Vector3f((float) vector.x, (float) vector.y, (float) vector.z)));
+            matrix.rotateXYZ((float) vector.x, (float) vector.y, (float) vector.z);
         } else if (quaternion != null) {
-            matrix.mul(new Matrix4f().rotate(new Quaternionf(quaternion.x, quaternion.y, quaternion.z, quaternion.w)));
+            matrix.rotate(new Quaternionf(quaternion.x, quaternion.y, quaternion.z, quaternion.w));
         }
     }
 }
@@ -6,7 +6,6 @@ import org.joml.Matrix4f;
 import org.joml.Quaterniond;
 import org.joml.Quaternionf;
 import org.joml.Vector3d;
-import org.joml.Vector3f;
 
 
 /**
@@ -29,9 +28,9 @@ public class RotationBackwards implements TransformationMatrixComponent {
     @Override
     public void apply(@NotNull final Matrix4f matrix) {
         if (vector != null) {
-            matrix.mul(new Matrix4f().rotateZYX(new Vector3f((float) -vector.x, (float) -vector.y, (float) -vector.z)));
+            matrix.rotateZYX((float) -vector.z, (float) -vector.y, (float) -vector.x);
         } else if (quaternion != null) {
-            matrix.mul(new Matrix4f().rotate(new Quaternionf(quaternion.x, quaternion.y, quaternion.z, quaternion.w).invert()));
+            matrix.rotate(new Quaternionf(quaternion.x, quaternion.y, quaternion.z, quaternion.w).invert());
         }
     }
 }
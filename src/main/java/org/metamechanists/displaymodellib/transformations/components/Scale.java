@@ -3,6 +3,7 @@ package org.metamechanists.displaymodellib.transformations.components;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
+import org.metamechanists.displaymodellib.transformations.CompiledTransformationMatrix;
 
 public class Scale implements TransformationMatrixComponent {
     private final Vector3f scale;
@@ -13,6 +14,11 @@ public class Scale implements TransformationMatrixComponent {
 
     @Override
     public void apply(@NotNull final Matrix4f matrix) {
-        matrix.mul(new Matrix4f().scale(scale));
+        matrix.scale(scale);
+    }
+
+    @Override
+    public void compile(@NotNull final CompiledTransformationMatrix.Compiler compiler) {
+        compiler.scale(scale.x, scale.y, scale.z);
     }
 }
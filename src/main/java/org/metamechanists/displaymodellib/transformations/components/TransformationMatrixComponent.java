@@ -2,8 +2,18 @@ package org.metamechanists.displaymodellib.transformations.components;
 
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
+import org.metamechanists.displaymodellib.transformations.CompiledTransformationMatrix;
 
 @FunctionalInterface
 public interface TransformationMatrixComponent {
     void apply(@NotNull final Matrix4f matrix);
+
+    /**
+     * Emits this component as primitive operations. By default, the component is evaluated once and emitted as a single affine transformation.
+     */
+    default void compile(@NotNull final CompiledTransformationMatrix.Compiler compiler) {
+        final Matrix4f matrix = new Matrix4f();
+        apply(matrix);
+        compiler.transform(matrix);
+    }
 }
@@ -3,6 +3,7 @@ package org.metamechanists.displaymodellib.transformations.components;
 import org.jetbrains.annotations.NotNull;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
+import org.metamechanists.displaymodellib.transformations.CompiledTransformationMatrix;
 
 public class Translation implements TransformationMatrixComponent {
     private final Vector3f translation;
@@ -13,6 +14,11 @@ public class Translation implements TransformationMatrixComponent {
 
     @Override
     public void apply(@NotNull final Matrix4f matrix) {
-        matrix.mul(new Matrix4f().translate(translation));
+        matrix.translate(translation);
+    }
+
+    @Override
+    public void compile(@NotNull final CompiledTransformationMatrix.Compiler compiler) {
+        compiler.translate(translation.x, translation.y, translation.z);
     }
 }
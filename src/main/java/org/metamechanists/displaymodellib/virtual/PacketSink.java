@@ -0,0 +1,24 @@
+package org.metamechanists.displaymodellib.virtual;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+
+/**
+ * Sends virtual displays to players, for example by writing packets with ProtocolLib or directly to the player's connection
+ * Implementations read the display's properties from {@link VirtualDisplay#getState()}
+ */
+public interface PacketSink {
+    /**
+     * Spawns the display for the player, including all of its metadata
+     */
+    void spawn(@NotNull Player viewer, @NotNull VirtualDisplay display);
+    /**
+     * Sends the display's current metadata to a player who can already see it
+     */
+    void metadata(@NotNull Player viewer, @NotNull VirtualDisplay display);
+    /**
+     * Removes the display for the player
+     */
+    void destroy(@NotNull Player viewer, @NotNull VirtualDisplay display);
+}
@@ -0,0 +1,62 @@
+package org.metamechanists.displaymodellib.virtual;
+
+import lombok.Getter;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * A {@link PacketSink} which sends nothing, and instead records every operation in memory
+ * Useful for tests and benchmarks
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class RecordingPacketSink implements PacketSink {
+    public enum Type {
+        SPAWN,
+        METADATA,
+        DESTROY
+    }
+
+    @Getter
+    public static final class Operation {
+        private final Type type;
+        private final UUID viewer;
+        private final int entityId;
+
+        private Operation(@NotNull final Type type, @NotNull final UUID viewer, final int entityId) {
+            this.type = type;
+            this.viewer = viewer;
+            this.entityId = entityId;
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    @Override
+    public void spawn(@NotNull final Player viewer, @NotNull final VirtualDisplay display) {
+        operations.add(new Operation(Type.SPAWN, viewer.getUniqueId(), display.getEntityId()));
+    }
+    @Override
+    public void metadata(@NotNull final Player viewer, @NotNull final VirtualDisplay display) {
+        operations.add(new Operation(Type.METADATA, viewer.getUniqueId(), display.getEntityId()));
+    }
+    @Override
+    public void destroy(@NotNull final Player viewer, @NotNull final VirtualDisplay display) {
+        operations.add(new Operation(Type.DESTROY, viewer.getUniqueId(), display.getEntityId()));
+    }
+
+    public @NotNull List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+    public long count(@NotNull final Type type) {
+        return operations.stream().filter(operation -> operation.type == type).count();
+    }
+    public void clear() {
+        operations.clear();
+    }
+}
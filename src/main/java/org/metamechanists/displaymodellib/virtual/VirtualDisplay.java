@@ -0,0 +1,54 @@
+package org.metamechanists.displaymodellib.virtual;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+import org.metamechanists.displaymodellib.builders.DisplayBuilder;
+
+import java.util.UUID;
+
+
+/**
+ * A display which only exists on the clients it has been sent to, with no entity on the server
+ * The state is a snapshot of the builder which created it, and is replaced rather than modified when the display is updated
+ */
+@Getter
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class VirtualDisplay {
+    private final int entityId;
+    private final UUID uuid;
+    private final EntityType type;
+    private final Location location;
+    private DisplayBuilder state;
+    @Getter(AccessLevel.NONE)
+    private boolean dirty;
+
+    public VirtualDisplay(@NotNull final EntityType type, @NotNull final Location location, @NotNull final DisplayBuilder state) {
+        // Taken from the same counter as real entities, so the ID can never clash with one
+        this.entityId = Bukkit.getUnsafe().nextEntityId();
+        this.uuid = UUID.randomUUID();
+        this.type = type;
+        this.location = location.clone();
+        this.location.setYaw(0);
+        this.location.setPitch(0);
+        this.state = state;
+    }
+
+    /**
+     * Replaces the state of the display. The new state is sent to viewers on the next {@link VirtualDisplayTracker#tick()}
+     */
+    public void setState(@NotNull final DisplayBuilder state) {
+        this.state = state;
+        this.dirty = true;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+    void clearDirty() {
+        dirty = false;
+    }
+}
@@ -0,0 +1,120 @@
+package org.metamechanists.displaymodellib.virtual;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+
+/**
+ * Keeps track of which players can see which {@link VirtualModel}, and sends the spawn, metadata and destroy operations to a {@link PacketSink}
+ * A player sees a model while they are in the same world and within the view distance of the model's location
+ * Must only be used from the main thread
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class VirtualDisplayTracker {
+    public static final double DEFAULT_VIEW_DISTANCE = 64;
+    private final PacketSink sink;
+    private final double viewDistanceSquared;
+    private final Set<VirtualModel> models = new LinkedHashSet<>();
+    private BukkitTask task;
+
+    public VirtualDisplayTracker(@NotNull final PacketSink sink) {
+        this(sink, DEFAULT_VIEW_DISTANCE);
+    }
+    public VirtualDisplayTracker(@NotNull final PacketSink sink, final double viewDistance) {
+        this.sink = sink;
+        this.viewDistanceSquared = viewDistance * viewDistance;
+    }
+
+    public void track(@NotNull final VirtualModel model) {
+        models.add(model);
+    }
+    /**
+     * Stops tracking the model, and destroys it for every player who can see it
+     */
+    public void untrack(@NotNull final VirtualModel model) {
+        if (!models.remove(model)) {
+            return;
+        }
+        for (final UUID uuid : model.getMutableViewers()) {
+            final Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                model.getDisplays().values().forEach(display -> sink.destroy(player, display));
+            }
+        }
+        model.getMutableViewers().clear();
+    }
+    public int getTrackedModels() {
+        return models.size();
+    }
+
+    /**
+     * Calls {@link #tick()} every tick until {@link #stop()} is called
+     */
+    public void start(@NotNull final Plugin plugin) {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0, 1);
+        }
+    }
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private boolean canSee(@NotNull final Player player, @NotNull final Location location) {
+        final Location playerLocation = player.getLocation();
+        return playerLocation.getWorld().equals(location.getWorld()) && playerLocation.distanceSquared(location) <= viewDistanceSquared;
+    }
+
+    /**
+     * Destroys models for players who have moved away, sends changed displays to existing viewers, and spawns models for players who have moved close
+     */
+    public void tick() {
+        for (final VirtualModel model : models) {
+            final Set<UUID> viewers = model.getMutableViewers();
+            final List<Player> currentViewers = new ArrayList<>(viewers.size());
+
+            final Iterator<UUID> iterator = viewers.iterator();
+            while (iterator.hasNext()) {
+                final Player player = Bukkit.getPlayer(iterator.next());
+                if (player == null) {
+                    // The client has disconnected, so there is nothing to destroy
+                    iterator.remove();
+                    continue;
+                }
+                if (!canSee(player, model.getLocation())) {
+                    model.getDisplays().values().forEach(display -> sink.destroy(player, display));
+                    iterator.remove();
+                    continue;
+                }
+                currentViewers.add(player);
+            }
+
+            for (final VirtualDisplay display : model.getDisplays().values()) {
+                if (display.isDirty()) {
+                    currentViewers.forEach(player -> sink.metadata(player, display));
+                    display.clearDirty();
+                }
+            }
+
+            for (final Player player : model.getLocation().getWorld().getPlayers()) {
+                if (!viewers.contains(player.getUniqueId()) && canSee(player, model.getLocation())) {
+                    model.getDisplays().values().forEach(display -> sink.spawn(player, display));
+                    viewers.add(player.getUniqueId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.metamechanists.displaymodellib.virtual;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+
+/**
+ * A named set of virtual displays, the virtual equivalent of a display group
+ * Which players can see the model is managed by a {@link VirtualDisplayTracker}, so displays should be added before the model is tracked
+ */
+@Getter
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class VirtualModel {
+    private final Location location;
+    private final Map<String, VirtualDisplay> displays = new LinkedHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private final Set<UUID> viewers = new HashSet<>();
+
+    public VirtualModel(@NotNull final Location location) {
+        this.location = location.clone();
+    }
+
+    public VirtualModel addDisplay(@NotNull final String name, @NotNull final VirtualDisplay display) {
+        displays.put(name, display);
+        return this;
+    }
+    public @Nullable VirtualDisplay getDisplay(@NotNull final String name) {
+        return displays.get(name);
+    }
+
+    /**
+     * @return The players the model has been sent to
+     */
+    public @NotNull Set<UUID> getViewers() {
+        return Collections.unmodifiableSet(viewers);
+    }
+    Set<UUID> getMutableViewers() {
+        return viewers;
+    }
+}
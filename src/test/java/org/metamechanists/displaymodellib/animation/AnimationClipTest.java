@@ -0,0 +1,164 @@
+package org.metamechanists.displaymodellib.animation;
+
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.ModelBuilder;
+import org.metamechanists.displaymodellib.models.ModelGroup;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class AnimationClipTest {
+    private static final int FRAMES = 40;
+
+    private static @NotNull ModelBuilder pose(final int frame) {
+        return new ModelBuilder()
+                .add("base", new ModelCuboid().translate(0, -0.4F, 0).scale(1, 0.2F, 1))
+                .add("arm", new ModelGroup()
+                        .translate(0, 0.5F, 0)
+                        .rotate(0, frame * 2 * Math.PI / FRAMES, 0)
+                        .add("blade", new ModelCuboid().translate(1, 0, 0).scale(2, 0.1F, 0.4F)));
+    }
+
+    /**
+     * @return The furthest any corner of any component's unit cube is from where the model puts it, over every frame of the clip
+     */
+    private static float getMaxError(@NotNull final AnimationClip clip) {
+        float maxError = 0;
+        for (int frame = 0; frame < clip.getFrameCount(); frame++) {
+            final List<Matrix4f> expected = new ArrayList<>();
+            pose(frame).forEachComponent((name, component, matrix) -> expected.add(new Matrix4f(matrix)));
+            for (int component = 0; component < clip.getComponentCount(); component++) {
+                final Matrix4f actual = TransformationUtils.transformationToMatrix(clip.getTransformation(frame, component));
+                maxError = Math.max(maxError, Pose.getError(expected.get(component), actual, new Vector3f(), new Vector3f()));
+            }
+        }
+        return maxError;
+    }
+
+    @Test
+    void bakedClipReproducesModel() {
+        final AnimationClip clip = AnimationClip.bake(FRAMES, AnimationClipTest::pose);
+        assertEquals(FRAMES, clip.getFrameCount());
+        assertEquals(2, clip.getComponentCount());
+        final List<String> names = new ArrayList<>();
+        pose(0).forEachComponent((name, component, matrix) -> names.add(name));
+        for (int component = 0; component < names.size(); component++) {
+            assertEquals(names.get(component), clip.getName(component));
+        }
+        assertFalse(clip.isQuantized());
+        assertTrue(getMaxError(clip) <= 1.0E-4F, "Error of " + getMaxError(clip));
+    }
+
+    @Test
+    void quantizedClipRoundTripsWithinPrecision() {
+        final AnimationClip clip = AnimationClip.bake(FRAMES, AnimationClipTest::pose);
+        final AnimationClip quantized = AnimationClip.bake(FRAMES, AnimationClipTest::pose, true);
+        assertTrue(quantized.isQuantized());
+        assertEquals(clip.getSizeBytes() / 2, quantized.getSizeBytes());
+        // Every value is within half a step (1/65535 of its range, and no range here is wider than 4) of its baked value
+        assertTrue(getMaxError(quantized) <= 1.0E-3F, "Error of " + getMaxError(quantized));
+    }
+
+    @Test
+    void quantizedRotationsAreNormalized() {
+        final AnimationClip quantized = AnimationClip.bake(FRAMES, AnimationClipTest::pose, true);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (int component = 0; component < quantized.getComponentCount(); component++) {
+                final Transformation transformation = quantized.getTransformation(frame, component);
+                assertEquals(1, transformation.getLeftRotation().lengthSquared(), 1.0E-6F);
+            }
+        }
+    }
+
+    @Test
+    void stillComponentsQuantizeExactly() {
+        final AnimationClip clip = AnimationClip.bake(FRAMES, AnimationClipTest::pose);
+        final AnimationClip quantized = AnimationClip.bake(FRAMES, AnimationClipTest::pose, true);
+        final int base = clip.getName(0).equals("base") ? 0 : 1;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            // A channel which never changes has a range of zero, so it is stored exactly
+            assertEquals(clip.getTransformation(frame, base).getTranslation(), quantized.getTransformation(frame, base).getTranslation());
+            assertEquals(clip.getTransformation(frame, base).getScale(), quantized.getTransformation(frame, base).getScale());
+        }
+    }
+
+    /**
+     * @return A display which adds a copy of every transformation it is given to the list, and the transformation itself to the other list
+     */
+    private static @NotNull Display display(@NotNull final List<Transformation> copies, @NotNull final List<Transformation> given) {
+        return (Display) Proxy.newProxyInstance(BlockDisplay.class.getClassLoader(), new Class<?>[] {BlockDisplay.class}, (proxy, method, args) -> {
+            if (!method.getName().equals("setTransformation")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            final Transformation transformation = (Transformation) args[0];
+            given.add(transformation);
+            return copies.add(new Transformation(new Vector3f(transformation.getTranslation()), new Quaternionf(transformation.getLeftRotation()),
+                    new Vector3f(transformation.getScale()), new Quaternionf(transformation.getRightRotation())));
+        });
+    }
+
+    @Test
+    void cursorReusesOneTransformation() {
+        final AnimationClip clip = AnimationClip.bake(FRAMES, AnimationClipTest::pose);
+        final List<Transformation> copies = new ArrayList<>();
+        final List<Transformation> given = new ArrayList<>();
+        final AnimationClip.Cursor cursor = new AnimationClip.Cursor(clip, new Display[] {display(copies, given), display(copies, given)});
+        cursor.step();
+        cursor.step();
+
+        // The first frame sets both components, then the second only sets the one which moved
+        assertEquals(3, given.size());
+        given.forEach(transformation -> assertSame(given.get(0), transformation));
+        assertEquals(clip.getTransformation(0, 0), copies.get(0));
+        assertEquals(clip.getTransformation(0, 1), copies.get(1));
+        final int moving = clip.getName(0).equals("base") ? 1 : 0;
+        assertEquals(clip.getTransformation(1, moving), copies.get(2));
+    }
+
+    @Test
+    void cursorDoesNotNeedToNormalizeQuantizedRotations() {
+        final AnimationClip quantized = AnimationClip.bake(FRAMES, AnimationClipTest::pose, true);
+        final List<Transformation> copies = new ArrayList<>();
+        final AnimationClip.Cursor cursor = new AnimationClip.Cursor(quantized, new Display[] {display(copies, new ArrayList<>()), display(copies, new ArrayList<>())});
+        for (int frame = 0; frame < FRAMES; frame++) {
+            cursor.step();
+        }
+        assertFalse(copies.isEmpty());
+        for (final Transformation transformation : copies) {
+            // Each channel is within half a step of its baked value, and a rotation's channels have ranges no wider than 2
+            assertEquals(1, transformation.getLeftRotation().lengthSquared(), 1.0E-4F);
+        }
+    }
+
+    @Test
+    void transformationsAreNewEachCall() {
+        final AnimationClip clip = AnimationClip.bake(FRAMES, AnimationClipTest::pose);
+        clip.getTransformation(3, 1).getTranslation().set(100);
+        assertTrue(clip.getTransformation(3, 1).getTranslation().x < 100);
+    }
+
+    @Test
+    void rejectsInvalidPoses() {
+        assertThrows(IllegalArgumentException.class, () -> AnimationClip.bake(0, AnimationClipTest::pose));
+        assertThrows(IllegalArgumentException.class, () -> AnimationClip.bake(2, frame -> frame == 0
+                ? pose(0)
+                : new ModelBuilder().add("other", new ModelCuboid())));
+    }
+}
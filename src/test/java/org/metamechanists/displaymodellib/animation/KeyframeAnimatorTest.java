@@ -0,0 +1,75 @@
+package org.metamechanists.displaymodellib.animation;
+
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class KeyframeAnimatorTest {
+    // Keyframes at ticks 0, 9, 10 and 20
+    private static final KeyframeTimeline JUMP = KeyframeTimeline.sample(20, tick -> new Matrix4f().translation(tick < 10 ? 0 : 5, 0, 0));
+
+    private final KeyframeAnimator animator = new KeyframeAnimator();
+    // The tick and interpolation duration of every transformation sent
+    private final List<String> sent = new ArrayList<>();
+    private int tick;
+    private int duration;
+
+    private @NotNull Display display() {
+        return (Display) Proxy.newProxyInstance(BlockDisplay.class.getClassLoader(), new Class<?>[] {BlockDisplay.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "setInterpolationDelay" -> null;
+            case "setInterpolationDuration" -> {
+                duration = (int) args[0];
+                yield null;
+            }
+            case "setTransformation" -> sent.add(tick + ":" + duration);
+            case "isValid" -> true;
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private void tick(final int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            tick++;
+            animator.tick();
+        }
+    }
+
+    @Test
+    void everySegmentKeepsItsSampledDuration() {
+        animator.play(display(), JUMP, false);
+        tick(30);
+        // Snapped on the play tick, then each keyframe is sent as the previous one is reached
+        assertEquals(List.of("0:0", "1:9", "10:1", "11:10"), sent);
+        assertEquals(0, animator.size());
+    }
+
+    @Test
+    void loopingContinuesFromTheSecondKeyframe() {
+        animator.play(display(), JUMP, true);
+        tick(25);
+        assertEquals(List.of("0:0", "1:9", "10:1", "11:10", "21:9"), sent);
+        assertEquals(1, animator.size());
+    }
+
+    @Test
+    void stoppedPlaybacksAreNotCounted() {
+        final KeyframeAnimator.Playback playback = animator.play(display(), JUMP, false);
+        animator.play(display(), JUMP, false);
+        assertEquals(2, animator.size());
+
+        playback.stop();
+        assertEquals(1, animator.size());
+        tick(1);
+        assertEquals(List.of("0:0", "0:0", "1:9"), sent);
+    }
+}
@@ -0,0 +1,126 @@
+package org.metamechanists.displaymodellib.animation;
+
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.transformations.TransformationUtils;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class KeyframeTimelineTest {
+    // Allows for float error on top of the timeline's own tolerance
+    private static final float SLACK = 1.0E-4F;
+
+    /**
+     * @return What a client shows on the given tick, interpolating between the keyframes either side of it
+     */
+    private static @NotNull Matrix4f getClientMatrix(@NotNull final KeyframeTimeline timeline, final int tick) {
+        int keyframe = 1;
+        while (timeline.getTick(keyframe) < tick) {
+            keyframe++;
+        }
+        final int fromTick = timeline.getTick(keyframe - 1);
+        final float progress = (float) (tick - fromTick) / (timeline.getTick(keyframe) - fromTick);
+        final Transformation from = timeline.getTransformation(keyframe - 1);
+        final Transformation to = timeline.getTransformation(keyframe);
+        return TransformationUtils.transformationToMatrix(new Transformation(
+                from.getTranslation().lerp(to.getTranslation(), progress, new Vector3f()),
+                from.getLeftRotation().slerp(to.getLeftRotation(), progress, new Quaternionf()),
+                from.getScale().lerp(to.getScale(), progress, new Vector3f()),
+                new Quaternionf()));
+    }
+
+    private static float getAngle(@NotNull final Quaternionf a, @NotNull final Quaternionf b) {
+        return (float) (2 * Math.acos(Math.min(1, Math.abs(a.dot(b)))));
+    }
+
+    /**
+     * Checks that the client's interpolation between the keyframes stays within the tolerance of the animation on every tick
+     */
+    private static void assertReproduces(@NotNull final KeyframeTimeline timeline, final int duration,
+                                         @NotNull final IntFunction<? extends Matrix4fc> pose, final float tolerance, final float maxAngle) {
+        assertEquals(0, timeline.getTick(0));
+        assertEquals(duration, timeline.getDuration());
+        for (int keyframe = 1; keyframe < timeline.size(); keyframe++) {
+            assertTrue(timeline.getTick(keyframe) > timeline.getTick(keyframe - 1));
+            final float angle = getAngle(timeline.getTransformation(keyframe - 1).getLeftRotation(), timeline.getTransformation(keyframe).getLeftRotation());
+            assertTrue(angle <= maxAngle + SLACK, "Keyframe " + keyframe + " turns by " + angle);
+        }
+        for (int tick = 0; tick <= duration; tick++) {
+            final float error = Pose.getError(pose.apply(tick), getClientMatrix(timeline, tick), new Vector3f(), new Vector3f());
+            assertTrue(error <= tolerance + SLACK, "Tick " + tick + " is " + error + " blocks from the animation");
+        }
+    }
+    private static @NotNull KeyframeTimeline sampleAndCheck(final int duration, @NotNull final IntFunction<? extends Matrix4fc> pose) {
+        final KeyframeTimeline timeline = KeyframeTimeline.sample(duration, pose);
+        assertReproduces(timeline, duration, pose, KeyframeTimeline.DEFAULT_TOLERANCE, KeyframeTimeline.DEFAULT_MAX_ANGLE);
+        return timeline;
+    }
+
+    @Test
+    void linearMovementNeedsOnlyEndpoints() {
+        final KeyframeTimeline timeline = sampleAndCheck(40, tick -> new Matrix4f().translation(tick * 0.1F, 2, -tick * 0.05F).scale(1 + tick * 0.01F));
+        assertEquals(2, timeline.size());
+    }
+
+    @Test
+    void stillPoseNeedsOnlyEndpoints() {
+        assertEquals(2, sampleAndCheck(100, tick -> new Matrix4f().translation(1, 2, 3)).size());
+    }
+
+    @Test
+    void spinIsSplitByMaxAngle() {
+        // A full turn cannot be interpolated along the shortest arc, so it needs at least three segments of at most 120 degrees
+        final KeyframeTimeline timeline = sampleAndCheck(60, tick -> new Matrix4f().rotateY((float) (tick * 2 * Math.PI / 60)));
+        assertTrue(timeline.size() >= 4, "Only " + timeline.size() + " keyframes");
+        assertTrue(timeline.size() <= 5, timeline.size() + " keyframes");
+    }
+
+    @Test
+    void smallerMaxAngleGivesMoreKeyframes() {
+        final IntFunction<Matrix4f> pose = tick -> new Matrix4f().rotateY((float) (tick * 2 * Math.PI / 60));
+        final float maxAngle = (float) Math.toRadians(30);
+        final KeyframeTimeline timeline = KeyframeTimeline.sample(60, pose, KeyframeTimeline.DEFAULT_TOLERANCE, maxAngle);
+        assertReproduces(timeline, 60, pose, KeyframeTimeline.DEFAULT_TOLERANCE, maxAngle);
+        assertTrue(timeline.size() >= 13, "Only " + timeline.size() + " keyframes");
+    }
+
+    @Test
+    void spinAboutAnotherPointNeedsMoreKeyframes() {
+        // The origin moves in a circle, but the client moves it in a straight line between keyframes
+        final int centered = sampleAndCheck(60, tick -> new Matrix4f().rotateY((float) (tick * 2 * Math.PI / 60))).size();
+        final int offCenter = sampleAndCheck(60, tick -> new Matrix4f().rotateY((float) (tick * 2 * Math.PI / 60)).translate(-0.5F, -0.5F, -0.5F)).size();
+        assertTrue(offCenter > centered, offCenter + " keyframes off center, " + centered + " centered");
+    }
+
+    @Test
+    void jumpIsSplitAtTheJump() {
+        final KeyframeTimeline timeline = sampleAndCheck(20, tick -> new Matrix4f().translation(tick < 10 ? 0 : 5, 0, 0));
+        assertEquals(4, timeline.size());
+        assertEquals(9, timeline.getTick(1));
+        assertEquals(10, timeline.getTick(2));
+    }
+
+    @Test
+    void transformationsAreCopies() {
+        final KeyframeTimeline timeline = KeyframeTimeline.sample(10, tick -> new Matrix4f().translation(tick, 0, 0));
+        timeline.getTransformation(1).getTranslation().set(100);
+        assertEquals(10, timeline.getTransformation(1).getTranslation().x, SLACK);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> KeyframeTimeline.sample(0, tick -> new Matrix4f()));
+        assertThrows(IllegalArgumentException.class, () -> KeyframeTimeline.sample(10, tick -> new Matrix4f(), 0.01F, (float) Math.PI));
+        assertThrows(IllegalArgumentException.class, () -> KeyframeTimeline.sample(10, tick -> new Matrix4f().m10(1)));
+    }
+}
@@ -0,0 +1,111 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.Material;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.components.ModelComponent;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+class CuboidMergerTest {
+    private static final double EPSILON = 1.0E-5;
+
+    private static @NotNull ModelCuboid cube(final float x, final float y, final float z, @NotNull final Material material) {
+        return new ModelCuboid().translate(x, y, z).material(material);
+    }
+
+    private static @NotNull BoundingBox getBox(@NotNull final ModelComponent component) {
+        final BoundingBox box = CuboidMerger.getAxisAlignedBox(component.getMatrixView());
+        assertNotNull(box);
+        return box;
+    }
+
+    private static void assertBox(final double minX, final double minY, final double minZ,
+                                  final double maxX, final double maxY, final double maxZ, @NotNull final BoundingBox box) {
+        assertEquals(minX, box.getMinX(), EPSILON);
+        assertEquals(minY, box.getMinY(), EPSILON);
+        assertEquals(minZ, box.getMinZ(), EPSILON);
+        assertEquals(maxX, box.getMaxX(), EPSILON);
+        assertEquals(maxY, box.getMaxY(), EPSILON);
+        assertEquals(maxZ, box.getMaxZ(), EPSILON);
+    }
+
+    @Test
+    void rowMergesIntoOneCuboid() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("a", cube(0, 0, 0, Material.STONE))
+                .add("b", cube(1, 0, 0, Material.STONE))
+                .add("c", cube(2, 0, 0, Material.STONE));
+        assertEquals(2, CuboidMerger.merge(model));
+        assertEquals(1, model.getComponents().size());
+        final ModelCuboid merged = (ModelCuboid) model.getComponents().values().iterator().next();
+        assertSame(Material.STONE, merged.getMain().getMaterial());
+        assertBox(-0.5, -0.5, -0.5, 2.5, 0.5, 0.5, getBox(merged));
+    }
+
+    @Test
+    void slabsMergeIntoBlock() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("bottom", new ModelCuboid().translate(0, -0.25F, 0).scale(1, 0.5F, 1).material(Material.STONE))
+                .add("top", new ModelCuboid().translate(0, 0.25F, 0).scale(1, 0.5F, 1).material(Material.STONE));
+        assertEquals(1, CuboidMerger.merge(model));
+        assertBox(-0.5, -0.5, -0.5, 0.5, 0.5, 0.5, getBox(model.getComponents().get("bottom")));
+    }
+
+    @Test
+    void differentStateIsNotMerged() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("a", cube(0, 0, 0, Material.STONE))
+                .add("b", cube(1, 0, 0, Material.DIRT))
+                .add("c", cube(2, 0, 0, Material.STONE).brightness(15))
+                .add("d", cube(3, 0, 0, Material.STONE));
+        assertEquals(0, CuboidMerger.merge(model));
+        assertEquals(4, model.getComponents().size());
+    }
+
+    @Test
+    void onlyWholeFacesAreMerged() {
+        // An L shape: one pair can merge, but the result cannot take the third cube without changing the shape
+        final ModelBuilder model = new ModelBuilder()
+                .add("a", cube(0, 0, 0, Material.STONE))
+                .add("b", cube(1, 0, 0, Material.STONE))
+                .add("c", cube(0, 1, 0, Material.STONE));
+        assertEquals(1, CuboidMerger.merge(model));
+        assertEquals(2, model.getComponents().size());
+
+        final List<BoundingBox> boxes = model.getComponents().values().stream()
+                .map(CuboidMergerTest::getBox)
+                .sorted(Comparator.comparingDouble(BoundingBox::getVolume))
+                .toList();
+        final double volume = boxes.get(0).getVolume() + boxes.get(1).getVolume();
+        assertEquals(3, volume, EPSILON);
+    }
+
+    @Test
+    void rotatedAndGroupedCuboidsAreLeftAlone() {
+        final ModelCuboid rotated = cube(1, 0, 0, Material.STONE).rotateY(Math.PI / 4);
+        final ModelCuboid grouped = cube(0, 1, 0, Material.STONE);
+        final ModelBuilder model = new ModelBuilder()
+                .add("a", cube(0, 0, 0, Material.STONE))
+                .add("rotated", rotated)
+                .add("group", new ModelGroup().add("grouped", grouped));
+        assertEquals(0, CuboidMerger.merge(model));
+        assertSame(rotated, model.getComponents().get("rotated"));
+        assertSame(grouped, model.getGroups().get("group").getComponents().get("grouped"));
+    }
+
+    @Test
+    void axisAlignedBoxRejectsRotationAndMirroring() {
+        assertNull(CuboidMerger.getAxisAlignedBox(new ModelCuboid().rotateY(Math.PI / 2).getMatrixView()));
+        assertNull(CuboidMerger.getAxisAlignedBox(new ModelCuboid().scale(-1, 1, 1).getMatrixView()));
+    }
+}
@@ -0,0 +1,91 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class HiddenComponentCullerTest {
+    private static @NotNull ModelCuboid box(final float x, final float y, final float z, final float size, @NotNull final Material material) {
+        return new ModelCuboid().translate(x, y, z).scale(size).material(material);
+    }
+
+    @Test
+    void cuboidInsideShellIsHidden() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("shell", box(0, 0, 0, 3, Material.STONE))
+                .add("core", box(0, 0, 0, 1, Material.DIRT));
+        final HiddenComponentCuller.Report report = new HiddenComponentCuller().findHidden(model);
+        assertEquals(List.of("core"), report.getNames());
+        assertEquals(2, model.getComponents().size());
+    }
+
+    @Test
+    void cuboidCoveredByUnionOfOccludersIsHidden() {
+        // Neither half covers the core on its own
+        final ModelBuilder model = new ModelBuilder()
+                .add("left", new ModelCuboid().translate(-0.5F, 0, 0).scale(1, 2, 2).material(Material.STONE))
+                .add("right", new ModelCuboid().translate(0.5F, 0, 0).scale(1, 2, 2).material(Material.STONE))
+                .add("core", box(0, 0, 0, 1, Material.DIRT));
+        assertEquals(List.of("core"), new HiddenComponentCuller().findHidden(model).getNames());
+    }
+
+    @Test
+    void partiallyCoveredCuboidIsNotHidden() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("shell", box(0, 0, 0, 2, Material.STONE))
+                .add("poking", box(0.75F, 0, 0, 1, Material.DIRT));
+        assertEquals(0, new HiddenComponentCuller().findHidden(model).size());
+    }
+
+    @Test
+    void transparentCuboidsDoNotHide() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("shell", box(0, 0, 0, 3, Material.GLASS))
+                .add("core", box(0, 0, 0, 1, Material.STONE));
+        final HiddenComponentCuller culler = new HiddenComponentCuller();
+        assertEquals(0, culler.findHidden(model).size());
+        culler.opaque(Material.GLASS, true);
+        assertEquals(List.of("core"), culler.findHidden(model).getNames());
+    }
+
+    @Test
+    void glowingCuboidsAreKeptButStillHide() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("shell", box(0, 0, 0, 3, Material.STONE).glow(Color.fromRGB(255, 0, 0)))
+                .add("core", box(0, 0, 0, 1, Material.STONE).glow(Color.fromRGB(0, 255, 0)))
+                .add("plain", box(0, 1, 0, 0.5F, Material.STONE));
+        assertEquals(List.of("plain"), new HiddenComponentCuller().findHidden(model).getNames());
+    }
+
+    @Test
+    void onlyOneOfIdenticalCuboidsIsRemoved() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("a", box(0, 0, 0, 1, Material.STONE))
+                .add("b", box(0, 0, 0, 1, Material.STONE));
+        final HiddenComponentCuller.Report report = new HiddenComponentCuller().cull(model);
+        assertEquals(1, report.size());
+        assertEquals(1, model.getComponents().size());
+        assertFalse(model.getComponents().containsKey(report.getNames().get(0)));
+    }
+
+    @Test
+    void cullRemovesHiddenComponents() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("shell", box(0, 0, 0, 3, Material.STONE))
+                .add("core", box(0, 0, 0, 1, Material.STONE))
+                .add("outside", box(5, 0, 0, 1, Material.STONE));
+        new HiddenComponentCuller().cull(model);
+        assertEquals(2, model.getComponents().size());
+        assertTrue(model.getComponents().containsKey("shell"));
+        assertTrue(model.getComponents().containsKey("outside"));
+    }
+}
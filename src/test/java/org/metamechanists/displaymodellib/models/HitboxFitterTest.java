@@ -0,0 +1,103 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+import org.metamechanists.displaymodellib.models.components.ModelText;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class HitboxFitterTest {
+    private static final double EPSILON = 1.0E-5;
+
+    private static void assertBox(final double minX, final double minY, final double minZ,
+                                  final double maxX, final double maxY, final double maxZ, @NotNull final BoundingBox box) {
+        assertEquals(minX, box.getMinX(), EPSILON);
+        assertEquals(minY, box.getMinY(), EPSILON);
+        assertEquals(minZ, box.getMinZ(), EPSILON);
+        assertEquals(maxX, box.getMaxX(), EPSILON);
+        assertEquals(maxY, box.getMaxY(), EPSILON);
+        assertEquals(maxZ, box.getMaxZ(), EPSILON);
+    }
+
+    @Test
+    void componentBoxesIgnoreTextDisplays() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("cuboid", new ModelCuboid().translate(1, 0, 0).scale(2, 1, 1))
+                .add("text", new ModelText().translate(0, 5, 0));
+        final List<BoundingBox> boxes = HitboxFitter.getComponentBoxes(model);
+        assertEquals(1, boxes.size());
+        // Block displays are centered by their matrix, so the scaled cuboid spans its translation plus or minus half its size
+        assertBox(0, -0.5, -0.5, 2, 0.5, 0.5, boxes.get(0));
+    }
+
+    @Test
+    void rotatedComponentsGetEnclosingBox() {
+        final ModelBuilder model = new ModelBuilder().add("cuboid", new ModelCuboid().rotateY(Math.PI / 4));
+        final double halfDiagonal = Math.sqrt(2) / 2;
+        assertBox(-halfDiagonal, -0.5, -halfDiagonal, halfDiagonal, 0.5, halfDiagonal, HitboxFitter.getComponentBoxes(model).get(0));
+    }
+
+    @Test
+    void touchingBoxesMergeWithoutTolerance() {
+        final List<BoundingBox> boxes = List.of(
+                new BoundingBox(0, 0, 0, 1, 1, 1),
+                new BoundingBox(1, 0, 0, 2, 1, 1),
+                new BoundingBox(0.5, 0.5, 0.5, 1.5, 1, 1));
+        final List<BoundingBox> merged = HitboxFitter.merge(boxes, 0);
+        assertEquals(1, merged.size());
+        assertBox(0, 0, 0, 2, 1, 1, merged.get(0));
+    }
+
+    @Test
+    void mergeStopsAtTolerance() {
+        final List<BoundingBox> boxes = List.of(
+                new BoundingBox(0, 0, 0, 1, 1, 1),
+                new BoundingBox(2, 0, 0, 3, 1, 1));
+        // Merging wastes the one block gap between them
+        assertEquals(2, HitboxFitter.merge(boxes, 0.99).size());
+        final List<BoundingBox> merged = HitboxFitter.merge(boxes, 1);
+        assertEquals(1, merged.size());
+        assertBox(0, 0, 0, 3, 1, 1, merged.get(0));
+    }
+
+    @Test
+    void mergePrefersLeastWaste() {
+        final List<BoundingBox> boxes = List.of(
+                new BoundingBox(0, 0, 0, 1, 1, 1),
+                new BoundingBox(1.5, 0, 0, 2.5, 1, 1),
+                new BoundingBox(10, 0, 0, 11, 1, 1));
+        final List<BoundingBox> merged = HitboxFitter.merge(boxes, 1);
+        assertEquals(2, merged.size());
+        assertBox(0, 0, 0, 2.5, 1, 1, merged.get(0));
+        assertBox(10, 0, 0, 11, 1, 1, merged.get(1));
+    }
+
+    @Test
+    void mergeDoesNotModifyInput() {
+        final BoundingBox a = new BoundingBox(0, 0, 0, 1, 1, 1);
+        final BoundingBox b = new BoundingBox(1, 0, 0, 2, 1, 1);
+        HitboxFitter.merge(List.of(a, b), 0);
+        assertBox(0, 0, 0, 1, 1, 1, a);
+        assertBox(1, 0, 0, 2, 1, 1, b);
+    }
+
+    @Test
+    void squareFootprintKeepsCenter() {
+        assertBox(0, 0, -0.5, 2, 3, 1.5, HitboxFitter.squareFootprint(new BoundingBox(0, 0, 0, 2, 3, 1)));
+    }
+
+    @Test
+    void fitCoversModel() {
+        final ModelBuilder model = new ModelBuilder()
+                .add("left", new ModelCuboid().translate(-0.5F, 0, 0))
+                .add("right", new ModelCuboid().translate(0.5F, 0, 0));
+        final ModelHitboxes hitboxes = model.fitHitboxes(0);
+        assertEquals(1, hitboxes.size());
+        assertBox(-1, -0.5, -1, 1, 0.5, 1, hitboxes.getBoxes().get(0));
+    }
+}
@@ -0,0 +1,81 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class LongObjectMapTest {
+    @Test
+    void putGetAndReplace() {
+        final LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.put(5, "a"));
+        assertNull(map.put(-5, "b"));
+        assertEquals("a", map.put(5, "c"));
+        assertEquals("c", map.get(5));
+        assertEquals("b", map.get(-5));
+        assertNull(map.get(6));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeKeepsLaterEntriesInProbeSequenceReachable() {
+        // Seven keys in the default table of sixteen slots, so removals have entries in the same probe sequence to shift back
+        final LongObjectMap<Long> map = new LongObjectMap<>();
+        for (long key = 0; key < 7; key++) {
+            map.put(key, key);
+        }
+        for (long key = 0; key < 7; key += 2) {
+            assertEquals(key, map.remove(key));
+        }
+        assertNull(map.remove(0));
+        for (long key = 0; key < 7; key++) {
+            assertEquals(key % 2 == 0 ? null : key, map.get(key));
+        }
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        final Random random = new Random(42);
+        final LongObjectMap<Long> map = new LongObjectMap<>();
+        final Map<Long, Long> expected = new HashMap<>();
+        for (int operation = 0; operation < 100_000; operation++) {
+            // A small key range makes removals of present keys, and long probe sequences, common
+            final long key = ModelRegistry.getBlockKey(random.nextInt(64) - 32, random.nextInt(8), random.nextInt(64) - 32);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                final long value = random.nextLong();
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        final int[] visited = new int[1];
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+
+    @Test
+    void clearEmptiesMap() {
+        final LongObjectMap<String> map = new LongObjectMap<>();
+        for (long key = 0; key < 100; key++) {
+            map.put(key * 31, "value");
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(31));
+        map.put(31, "again");
+        assertEquals("again", map.get(31));
+    }
+}
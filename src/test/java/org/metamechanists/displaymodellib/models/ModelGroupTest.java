@@ -0,0 +1,63 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+import org.metamechanists.displaymodellib.models.components.ModelLine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class ModelGroupTest {
+    private static final float EPSILON = 1.0E-5F;
+
+    private static void assertMatrixEquals(@NotNull final Matrix4fc expected, @NotNull final Matrix4fc actual) {
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                assertEquals(expected.get(column, row), actual.get(column, row), EPSILON);
+            }
+        }
+    }
+
+    private static @NotNull Matrix4f expected(@NotNull final ModelGroup group, @NotNull final String name) {
+        return new Matrix4f(group.getWorldMatrix()).mul(group.getComponents().get(name).getMatrixView());
+    }
+
+    @Test
+    void componentMatrixFollowsComponentChanges() {
+        final ModelCuboid cuboid = new ModelCuboid().translate(1, 0, 0);
+        final ModelGroup group = new ModelGroup().translate(0, 2, 0).add("cuboid", cuboid);
+        assertMatrixEquals(expected(group, "cuboid"), group.getComponentMatrix("cuboid"));
+
+        cuboid.scale(0.5F);
+        assertMatrixEquals(expected(group, "cuboid"), group.getComponentMatrix("cuboid"));
+
+        final ModelLine line = new ModelLine().from(0, 0, 0).to(1, 1, 0).thickness(0.1F);
+        group.add("line", line);
+        assertMatrixEquals(expected(group, "line"), group.getComponentMatrix("line"));
+        line.to(0, 3, 1);
+        assertMatrixEquals(expected(group, "line"), group.getComponentMatrix("line"));
+    }
+
+    @Test
+    void componentMatrixFollowsAncestorChanges() {
+        final ModelGroup child = new ModelGroup().rotate(0, 0.5, 0).add("cuboid", new ModelCuboid().translate(1, 0, 0));
+        final ModelGroup parent = new ModelGroup().add("child", child);
+        final float x = child.getComponentMatrix("cuboid").m30();
+
+        parent.translate(3, 0, 0);
+        assertMatrixEquals(expected(child, "cuboid"), child.getComponentMatrix("cuboid"));
+        assertEquals(x + 3, child.getComponentMatrix("cuboid").m30(), EPSILON);
+    }
+
+    @Test
+    void replacedComponentIsRecalculated() {
+        final ModelGroup group = new ModelGroup().add("cuboid", new ModelCuboid().translate(1, 0, 0));
+        group.getComponentMatrix("cuboid");
+        // A new component has its own version counter, which may match the old one
+        group.add("cuboid", new ModelCuboid().translate(5, 0, 0));
+        assertMatrixEquals(expected(group, "cuboid"), group.getComponentMatrix("cuboid"));
+    }
+}
@@ -0,0 +1,162 @@
+package org.metamechanists.displaymodellib.models;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.entity.BlockDisplay;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.ModelInstanceIndex.OrphanPolicy;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class ModelInstanceIndexTest {
+    private static final long ID = 7;
+    private static final UUID WORLD_ID = UUID.randomUUID();
+    private static final ModelTemplate TEMPLATE = ModelTemplate.compile(new ModelBuilder()
+            .add("a", new ModelCuboid())
+            .add("b", new ModelCuboid().translate(0, 1, 0)));
+
+    private final World world = proxy(World.class, (proxy, method, args) -> {
+        if (!method.getName().equals("getUID")) {
+            throw new UnsupportedOperationException(method.getName());
+        }
+        return WORLD_ID;
+    });
+    private final Chunk chunk = proxy(Chunk.class, (proxy, method, args) -> switch (method.getName()) {
+        case "getWorld" -> world;
+        case "getX", "getZ" -> 0;
+        case "getChunkKey" -> Chunk.getChunkKey(0, 0);
+        default -> throw new UnsupportedOperationException(method.getName());
+    });
+    private final Set<Display> removed = new HashSet<>();
+
+    private static <T> @NotNull T proxy(@NotNull final Class<T> type, @NotNull final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> type.getSimpleName();
+            default -> handler.invoke(proxy, method, args);
+        }));
+    }
+
+    private @NotNull Display display(final long instanceId, final int componentIndex) {
+        final Map<NamespacedKey, Object> data = new HashMap<>();
+        final PersistentDataContainer container = proxy(PersistentDataContainer.class, (proxy, method, args) -> switch (method.getName()) {
+            case "set" -> data.put((NamespacedKey) args[0], args[2]);
+            case "getOrDefault" -> data.getOrDefault(args[0], args[2]);
+            case "get" -> data.get(args[0]);
+            case "remove" -> data.remove(args[0]);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        final Location location = new Location(world, 1, 64, 1);
+        final Display display = proxy(BlockDisplay.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getPersistentDataContainer" -> container;
+            case "getLocation" -> location.clone();
+            case "isValid" -> !removed.contains((Display) proxy);
+            case "remove" -> removed.add((Display) proxy);
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        ModelInstanceTags.tag(display, instanceId, componentIndex);
+        return display;
+    }
+
+    private void load(@NotNull final ModelInstanceIndex index, @NotNull final Entity... entities) {
+        index.onEntitiesLoad(new EntitiesLoadEvent(chunk, List.of(entities)));
+    }
+    private void unload(@NotNull final ModelInstanceIndex index, @NotNull final Entity... entities) {
+        index.onEntitiesUnload(new EntitiesUnloadEvent(chunk, List.of(entities)));
+    }
+
+    @Test
+    void rebindsTaggedDisplaysOnLoad() {
+        final ModelInstanceIndex index = new ModelInstanceIndex(id -> id == ID ? TEMPLATE : null);
+        final Display a = display(ID, 0);
+        final Display b = display(ID, 1);
+        load(index, a, b);
+
+        final ModelInstance instance = index.get(ID);
+        assertNotNull(instance);
+        assertTrue(instance.isLoaded());
+        assertSame(a, instance.getDisplay("a"));
+        assertSame(b, instance.getDisplay("b"));
+        assertEquals(Set.of(instance), index.getInstances(chunk));
+    }
+
+    @Test
+    void forgetsInstancesOnceEveryDisplayHasUnloaded() {
+        final AtomicInteger resolved = new AtomicInteger();
+        final ModelInstanceIndex index = new ModelInstanceIndex(id -> {
+            resolved.incrementAndGet();
+            return TEMPLATE;
+        });
+        final Display a = display(ID, 0);
+        final Display b = display(ID, 1);
+        load(index, a, b);
+
+        unload(index, a);
+        assertNotNull(index.get(ID));
+        unload(index, b);
+        assertNull(index.get(ID));
+        assertTrue(index.getInstances(chunk).isEmpty());
+
+        load(index, a, b);
+        assertNotNull(index.get(ID));
+        assertEquals(2, resolved.get());
+    }
+
+    @Test
+    void removesOrphansByDefault() {
+        final ModelInstanceIndex index = new ModelInstanceIndex(id -> null);
+        final Display orphan = display(ID, 0);
+        load(index, orphan);
+        assertTrue(removed.contains(orphan));
+        assertNull(index.get(ID));
+    }
+
+    @Test
+    void untagsOrKeepsOrphansWhenConfigured() {
+        final Display untagged = display(ID, 0);
+        load(new ModelInstanceIndex(id -> null, OrphanPolicy.UNTAG), untagged);
+        assertFalse(removed.contains(untagged));
+        assertEquals(ModelInstanceTags.NO_INSTANCE, ModelInstanceTags.getInstanceId(untagged));
+        assertEquals(-1, ModelInstanceTags.getComponentIndex(untagged));
+
+        final Display kept = display(ID, 0);
+        load(new ModelInstanceIndex(id -> null, OrphanPolicy.KEEP), kept);
+        assertFalse(removed.contains(kept));
+        assertEquals(ID, ModelInstanceTags.getInstanceId(kept));
+    }
+
+    @Test
+    void componentsMissingFromTheTemplateAreOrphans() {
+        final ModelInstanceIndex index = new ModelInstanceIndex(id -> TEMPLATE);
+        final Display missing = display(ID, TEMPLATE.size());
+        load(index, missing);
+        assertTrue(removed.contains(missing));
+        assertNull(index.get(ID));
+    }
+}
@@ -0,0 +1,139 @@
+package org.metamechanists.displaymodellib.models;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.bukkit.entity.Display.Billboard;
+import org.bukkit.entity.TextDisplay.TextAlignment;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.builders.TextDisplayBuilder;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+import org.metamechanists.displaymodellib.models.components.ModelText;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class ModelTemplateSerializerTest {
+    private static @NotNull ModelTemplate template() {
+        return ModelTemplate.compile(new ModelBuilder()
+                .add("base", new ModelCuboid()
+                        .translate(0, -0.25F, 0)
+                        .scale(1, 0.5F, 1)
+                        .material(Material.IRON_BLOCK))
+                .add("light", new ModelCuboid()
+                        .translate(0.25F, 0.3F, -0.1F)
+                        .rotateY(0.6)
+                        .scale(0.2F)
+                        .material(Material.GOLD_BLOCK)
+                        .glow(Color.fromARGB(0x80, 0x12, 0x34, 0x56))
+                        .brightness(15)
+                        .viewRange(0.5F)
+                        .interpolationDelay(-1)
+                        .interpolationDuration(3))
+                .add("label", new ModelText()
+                        .translate(0, 0.6F, 0)
+                        .text(Component.text("Generator", NamedTextColor.GOLD))
+                        .billboard(Billboard.CENTER)
+                        .alignment(TextAlignment.LEFT)
+                        .background(Color.fromARGB(0))
+                        .brightness(7)));
+    }
+
+    private static byte @NotNull [] write(@NotNull final ModelTemplate template) throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ModelTemplateSerializer.write(template, stream);
+        return stream.toByteArray();
+    }
+
+    private static void assertTemplatesEqual(@NotNull final ModelTemplate expected, @NotNull final ModelTemplate actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getName(i), actual.getName(i));
+            // Floats are written bit for bit, so the matrices must be identical
+            assertEquals(expected.getMatrix(i), actual.getMatrix(i));
+            assertBuildersEqual(expected, actual, i);
+        }
+    }
+
+    private static void assertBuildersEqual(@NotNull final ModelTemplate expected, @NotNull final ModelTemplate actual, final int index) {
+        if (expected.getBuilderView(index) instanceof final BlockDisplayBuilder a) {
+            final BlockDisplayBuilder b = (BlockDisplayBuilder) actual.getBuilderView(index);
+            assertEquals(a.getMaterial(), b.getMaterial());
+            assertNull(b.getBlockData());
+            assertEquals(a.getGlowColor(), b.getGlowColor());
+            assertEquals(a.getBrightness(), b.getBrightness());
+            assertEquals(a.getViewRange(), b.getViewRange());
+            assertEquals(a.getInterpolationDelay(), b.getInterpolationDelay());
+            assertEquals(a.getInterpolationDuration(), b.getInterpolationDuration());
+            assertEquals(a.getTransformation(), b.getTransformation());
+            return;
+        }
+        final TextDisplayBuilder a = (TextDisplayBuilder) expected.getBuilderView(index);
+        final TextDisplayBuilder b = (TextDisplayBuilder) actual.getBuilderView(index);
+        assertEquals(a.getText(), b.getText());
+        assertEquals(a.getBillboard(), b.getBillboard());
+        assertEquals(a.getAlignment(), b.getAlignment());
+        assertEquals(a.getBackgroundColor(), b.getBackgroundColor());
+        assertEquals(a.getBrightness(), b.getBrightness());
+        assertNull(b.getGlowColor());
+        assertNull(b.getViewRange());
+        assertEquals(a.getTransformation(), b.getTransformation());
+    }
+
+    @Test
+    void roundTripsThroughBuffer() throws IOException {
+        final ModelTemplate template = template();
+        assertTemplatesEqual(template, ModelTemplateSerializer.read(ByteBuffer.wrap(write(template))));
+    }
+
+    @Test
+    void roundTripsThroughMappedFile(@TempDir final Path directory) throws IOException {
+        final ModelTemplate template = template();
+        final Path path = directory.resolve("model.dmlt");
+        ModelTemplateSerializer.write(template, path);
+        assertTemplatesEqual(template, ModelTemplateSerializer.read(path));
+    }
+
+    @Test
+    void readsFromBufferPosition() throws IOException {
+        final byte[] bytes = write(template());
+        final ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 5);
+        buffer.position(5);
+        buffer.put(bytes);
+        buffer.position(5);
+        assertEquals(3, ModelTemplateSerializer.read(buffer).size());
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void rejectsOtherData() throws IOException {
+        final byte[] bytes = write(ModelTemplate.compile(new ModelBuilder()));
+        bytes[0] ^= 1;
+        assertThrows(IOException.class, () -> ModelTemplateSerializer.read(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    void rejectsOtherVersions() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(write(template()));
+        buffer.putShort(Integer.BYTES, (short) (ModelTemplateSerializer.VERSION + 1));
+        assertThrows(IOException.class, () -> ModelTemplateSerializer.read(buffer));
+    }
+
+    @Test
+    void rejectsTruncatedData() throws IOException {
+        final byte[] bytes = write(template());
+        assertThrows(IOException.class, () -> ModelTemplateSerializer.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1))));
+    }
+}
@@ -0,0 +1,39 @@
+package org.metamechanists.displaymodellib.models;
+
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.builders.TextDisplayBuilder;
+import org.metamechanists.displaymodellib.models.components.ModelCuboid;
+import org.metamechanists.displaymodellib.models.components.ModelText;
+import org.metamechanists.displaymodellib.text.TemplatedText;
+import org.metamechanists.displaymodellib.text.TextTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+
+class ModelTemplateTest {
+    @Test
+    void templatedTextIsFrozenWhenCompiling() {
+        final TemplatedText text = new TextTemplate().text("Power: ").slot("power").create().set("power", "10");
+        final ModelTemplate template = ModelTemplate.compile(new ModelBuilder().add("label", new ModelText().text(text)));
+        final Component compiled = ((TextDisplayBuilder) template.getBuilder(0)).getText();
+        assertEquals(text.getText(), compiled);
+
+        text.set("power", "20");
+        assertNotEquals(text.getText(), compiled);
+        assertEquals(compiled, ((TextDisplayBuilder) template.getBuilder(0)).getText());
+    }
+
+    @Test
+    void compilingDoesNotChangeTheModel() {
+        final ModelCuboid cuboid = new ModelCuboid().translate(1, 2, 3);
+        final ModelTemplate template = ModelTemplate.compile(new ModelBuilder().add("cuboid", cuboid));
+        assertEquals(cuboid.getMatrix(), template.getMatrix(0));
+        assertNull(cuboid.getMain().getTransformation());
+
+        cuboid.scale(2);
+        assertNotEquals(cuboid.getMatrix(), template.getMatrix(0));
+    }
+}
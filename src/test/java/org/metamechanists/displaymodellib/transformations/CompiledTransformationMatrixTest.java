@@ -0,0 +1,134 @@
+package org.metamechanists.displaymodellib.transformations;
+
+import org.bukkit.block.BlockFace;
+import org.bukkit.util.Transformation;
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Quaterniond;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class CompiledTransformationMatrixTest {
+    private static final float EPSILON = 1.0E-5F;
+
+    private static void assertMatrixEquals(@NotNull final Matrix4fc expected, @NotNull final Matrix4fc actual) {
+        assertTrue(expected.equals(actual, EPSILON), () -> "Expected\n" + expected + "but was\n" + actual);
+    }
+
+    private static @NotNull TransformationMatrixBuilder chain() {
+        return new TransformationMatrixBuilder()
+                .translate(0.25F, -1, 3)
+                .rotate(0.3, -1.2, 2.1)
+                .scale(0.5F, 2, 1.5F)
+                .rotateBackwards(new Quaterniond().rotateXYZ(1, 0.5, -0.25))
+                .lookAlong(BlockFace.EAST)
+                .translate(new Vector3f(-2, 0.5F, 0));
+    }
+
+    @Test
+    void compiledMatchesBuiltForEveryDisplayType() {
+        final TransformationMatrixBuilder builder = chain();
+        assertMatrixEquals(builder.buildForBlockDisplay(), builder.compileForBlockDisplay().evaluate());
+        assertMatrixEquals(builder.buildForItemDisplay(), builder.compileForItemDisplay().evaluate());
+        assertMatrixEquals(builder.buildForTextDisplay(), builder.compileForTextDisplay().evaluate());
+    }
+
+    @Test
+    void emptyBuilderCompilesToIdentity() {
+        final CompiledTransformationMatrix compiled = new TransformationMatrixBuilder().compileForItemDisplay();
+        assertEquals(0, compiled.size());
+        assertMatrixEquals(new Matrix4f(), compiled.evaluate());
+    }
+
+    @Test
+    void identityOperationsAreSkipped() {
+        final CompiledTransformationMatrix compiled = new TransformationMatrixBuilder()
+                .translate(0, 0, 0)
+                .scale(1, 1, 1)
+                .translate(1, 2, 3)
+                .compileForItemDisplay();
+        assertEquals(1, compiled.size());
+        assertMatrixEquals(new Matrix4f().translation(1, 2, 3), compiled.evaluate());
+    }
+
+    @Test
+    void evaluateOverwritesDestination() {
+        final TransformationMatrixBuilder builder = chain();
+        final Matrix4f dest = new Matrix4f().scale(7).translate(4, 5, 6);
+        final Matrix4f result = builder.compileForItemDisplay().evaluate(dest);
+        assertSame(dest, result);
+        assertMatrixEquals(builder.buildForItemDisplay(), dest);
+    }
+
+    @Test
+    void applyToMultipliesAfterExistingMatrix() {
+        final TransformationMatrixBuilder builder = chain();
+        final Matrix4f parent = new Matrix4f().translation(10, 0, -4).rotateY(0.7F);
+        final Matrix4f expected = new Matrix4f(parent).mul(builder.buildForBlockDisplay());
+        assertMatrixEquals(expected, builder.compileForBlockDisplay().applyTo(new Matrix4f(parent)));
+    }
+
+    @Test
+    void laterChangesToBuilderAreNotReflected() {
+        final TransformationMatrixBuilder builder = new TransformationMatrixBuilder().translate(1, 0, 0);
+        final CompiledTransformationMatrix compiled = builder.compileForItemDisplay();
+        builder.scale(3, 3, 3);
+        assertMatrixEquals(new Matrix4f().translation(1, 0, 0), compiled.evaluate());
+    }
+
+    private static void assertDecomposesTo(@NotNull final TransformationMatrixBuilder builder) {
+        final Transformation transformation = builder.buildTransformationForBlockDisplay();
+        assertNotNull(transformation);
+        assertMatrixEquals(builder.buildForBlockDisplay(), TransformationUtils.transformationToMatrix(transformation));
+    }
+
+    @Test
+    void decomposesTranslationRotationAndScale() {
+        assertDecomposesTo(new TransformationMatrixBuilder()
+                .translate(1, 2, 3)
+                .rotate(0.4, 1.1, -0.6)
+                .scale(2, 0.5F, 3));
+    }
+
+    @Test
+    void decomposesTranslationAfterRotationAndScale() {
+        assertDecomposesTo(new TransformationMatrixBuilder()
+                .rotate(0, Math.PI / 3, 0)
+                .scale(2, 2, 2)
+                .translate(1, -1, 0.5F)
+                .rotateBackwards(0.2, 0, 0.9));
+    }
+
+    @Test
+    void decomposesNonUniformScaleAfterUniformlyScaledRotation() {
+        assertDecomposesTo(new TransformationMatrixBuilder()
+                .rotate(0.7, 0, 0)
+                .scale(1.5F, 1.5F, 1.5F)
+                .rotate(0, 0.3, 0)
+                .scale(1, 4, 0.25F));
+    }
+
+    @Test
+    void decomposesLookAlong() {
+        assertDecomposesTo(new TransformationMatrixBuilder()
+                .lookAlong(new Vector3f(1, 2, -0.5F))
+                .scale(0.5F, 0.5F, 2));
+    }
+
+    @Test
+    void refusesShear() {
+        final TransformationMatrixBuilder builder = new TransformationMatrixBuilder()
+                .scale(1, 3, 1)
+                .rotate(0, 0, 0.5)
+                .scale(2, 1, 1);
+        assertNull(builder.buildTransformationForBlockDisplay());
+    }
+}
@@ -0,0 +1,53 @@
+package org.metamechanists.displaymodellib.transformations;
+
+import org.jetbrains.annotations.NotNull;
+import org.joml.Matrix4f;
+import org.joml.Matrix4fc;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.models.components.ModelLine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+
+class MatrixBatchTest {
+    private static final float EPSILON = 1.0E-5F;
+
+    private static void assertMatrixEquals(@NotNull final Matrix4fc expected, @NotNull final Matrix4fc actual) {
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                assertEquals(expected.get(column, row), actual.get(column, row), EPSILON, "Element " + column + ", " + row);
+            }
+        }
+    }
+
+    @Test
+    void linesMatchModelLine() {
+        final Vector3f[] from = {new Vector3f(0, 0, 0), new Vector3f(1, 2, 3), new Vector3f(0, 0, 0), new Vector3f(-2, 1, 0.5F), new Vector3f(4, 4, 4)};
+        final Vector3f[] to = {new Vector3f(2, 0, 0), new Vector3f(-1, 0.5F, 4), new Vector3f(0, 3, 0), new Vector3f(-2, -1, 0.5F), new Vector3f(4, 4, 4)};
+        final VectorBatch fromBatch = new VectorBatch(from.length);
+        final VectorBatch toBatch = new VectorBatch(to.length);
+        for (int i = 0; i < from.length; i++) {
+            fromBatch.set(i, from[i]);
+            toBatch.set(i, to[i]);
+        }
+
+        final MatrixBatch batch = new MatrixBatch(from.length);
+        batch.setLines(fromBatch, toBatch, 0.1F, 0.05F, from.length);
+        for (int i = 0; i < from.length; i++) {
+            final Matrix4f expected = new ModelLine().from(from[i]).to(to[i]).thickness(0.1F).extraLength(0.05F).getMatrix();
+            assertMatrixEquals(expected, batch.get(i, new Matrix4f()));
+        }
+    }
+
+    @Test
+    void zeroLengthLineIsNotNaN() {
+        final VectorBatch point = new VectorBatch(1).set(0, 1, 2, 3);
+        final MatrixBatch batch = new MatrixBatch(1);
+        batch.setLines(point, point, 0.2F, 0, 1);
+        for (int element = 0; element < 16; element++) {
+            assertFalse(Float.isNaN(batch.get(0, element)), "Element " + element);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package org.metamechanists.displaymodellib.virtual;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.UnsafeValues;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.metamechanists.displaymodellib.builders.BlockDisplayBuilder;
+import org.metamechanists.displaymodellib.virtual.RecordingPacketSink.Operation;
+import org.metamechanists.displaymodellib.virtual.RecordingPacketSink.Type;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class VirtualDisplayTrackerTest {
+    // The server is a singleton which cannot be replaced, so every test shares it and only the players change
+    private static final Map<UUID, Player> PLAYERS = new HashMap<>();
+    private static final Map<UUID, Location> LOCATIONS = new HashMap<>();
+    private static final AtomicInteger ENTITY_IDS = new AtomicInteger();
+
+    private final RecordingPacketSink sink = new RecordingPacketSink();
+    private final VirtualDisplayTracker tracker = new VirtualDisplayTracker(sink, 32);
+    private World world;
+    private VirtualModel model;
+
+    private static <T> @NotNull T proxy(@NotNull final Class<T> type, @NotNull final InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> type.getSimpleName();
+            default -> handler.invoke(proxy, method, args);
+        }));
+    }
+
+    @BeforeAll
+    static void installServer() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        final UnsafeValues unsafe = proxy(UnsafeValues.class, (proxy, method, args) -> ENTITY_IDS.incrementAndGet());
+        Bukkit.setServer(proxy(Server.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getPlayer" -> PLAYERS.get(args[0]);
+            case "getOnlinePlayers" -> PLAYERS.values();
+            case "getUnsafe" -> unsafe;
+            case "getLogger" -> Logger.getLogger(VirtualDisplayTrackerTest.class.getName());
+            case "getName", "getVersion" -> "Test";
+            case "getBukkitVersion" -> "1.20.6-R0.1-SNAPSHOT";
+            default -> throw new UnsupportedOperationException(method.getName());
+        }));
+    }
+
+    private static @NotNull World createWorld() {
+        return proxy(World.class, (proxy, method, args) -> {
+            if (!method.getName().equals("getPlayers")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return PLAYERS.values().stream()
+                    .filter(player -> LOCATIONS.get(player.getUniqueId()).getWorld() == proxy)
+                    .toList();
+        });
+    }
+
+    private static @NotNull Player join(@NotNull final Location location) {
+        final UUID uuid = UUID.randomUUID();
+        final Player player = proxy(Player.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getLocation" -> LOCATIONS.get(uuid).clone();
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+        PLAYERS.put(uuid, player);
+        LOCATIONS.put(uuid, location);
+        return player;
+    }
+
+    private static void move(@NotNull final Player player, @NotNull final Location location) {
+        LOCATIONS.put(player.getUniqueId(), location);
+    }
+
+    private static void quit(@NotNull final Player player) {
+        PLAYERS.remove(player.getUniqueId());
+        LOCATIONS.remove(player.getUniqueId());
+    }
+
+    private static void assertOperations(@NotNull final List<Operation> operations, @NotNull final Type type, @NotNull final Player viewer, final int... entityIds) {
+        assertEquals(entityIds.length, operations.size());
+        for (int i = 0; i < entityIds.length; i++) {
+            assertEquals(type, operations.get(i).getType());
+            assertEquals(viewer.getUniqueId(), operations.get(i).getViewer());
+            assertEquals(entityIds[i], operations.get(i).getEntityId());
+        }
+    }
+
+    private int[] getEntityIds() {
+        return model.getDisplays().values().stream().mapToInt(VirtualDisplay::getEntityId).toArray();
+    }
+
+    @BeforeEach
+    void createModel() {
+        world = createWorld();
+        final Location location = new Location(world, 0, 64, 0);
+        model = new VirtualModel(location)
+                .addDisplay("base", new VirtualDisplay(EntityType.BLOCK_DISPLAY, location, new BlockDisplayBuilder()))
+                .addDisplay("top", new VirtualDisplay(EntityType.BLOCK_DISPLAY, location.clone().add(0, 1, 0), new BlockDisplayBuilder()));
+        tracker.track(model);
+    }
+
+    @AfterEach
+    void quitAll() {
+        PLAYERS.clear();
+        LOCATIONS.clear();
+    }
+
+    @Test
+    void spawnsOnlyForPlayersInRange() {
+        final Player near = join(new Location(world, 10, 64, 10));
+        join(new Location(world, 100, 64, 0));
+        join(new Location(createWorld(), 0, 64, 0));
+
+        tracker.tick();
+        assertOperations(sink.getOperations(), Type.SPAWN, near, getEntityIds());
+        assertEquals(Set.of(near.getUniqueId()), model.getViewers());
+
+        sink.clear();
+        tracker.tick();
+        assertTrue(sink.getOperations().isEmpty());
+    }
+
+    @Test
+    void sendsMetadataOnlyForChangedDisplays() {
+        final Player player = join(new Location(world, 0, 64, 0));
+        tracker.tick();
+        sink.clear();
+
+        final VirtualDisplay top = model.getDisplay("top");
+        top.setState(new BlockDisplayBuilder().brightness(15));
+        tracker.tick();
+        assertOperations(sink.getOperations(), Type.METADATA, player, top.getEntityId());
+
+        sink.clear();
+        tracker.tick();
+        assertTrue(sink.getOperations().isEmpty());
+    }
+
+    @Test
+    void changesBeforeSpawnAreSentWithTheSpawn() {
+        model.getDisplay("base").setState(new BlockDisplayBuilder().brightness(15));
+        tracker.tick();
+        final Player player = join(new Location(world, 0, 64, 0));
+        tracker.tick();
+        assertOperations(sink.getOperations(), Type.SPAWN, player, getEntityIds());
+    }
+
+    @Test
+    void destroysAndRespawnsAsPlayerMoves() {
+        final Player player = join(new Location(world, 0, 64, 0));
+        tracker.tick();
+        sink.clear();
+
+        move(player, new Location(world, 0, 64, 40));
+        tracker.tick();
+        assertOperations(sink.getOperations(), Type.DESTROY, player, getEntityIds());
+        assertTrue(model.getViewers().isEmpty());
+
+        sink.clear();
+        move(player, new Location(world, 0, 64, 20));
+        tracker.tick();
+        assertOperations(sink.getOperations(), Type.SPAWN, player, getEntityIds());
+    }
+
+    @Test
+    void forgetsDisconnectedPlayers() {
+        final Player player = join(new Location(world, 0, 64, 0));
+        tracker.tick();
+        sink.clear();
+
+        quit(player);
+        tracker.tick();
+        assertTrue(sink.getOperations().isEmpty());
+        assertTrue(model.getViewers().isEmpty());
+    }
+
+    @Test
+    void untrackDestroysForViewers() {
+        final Player player = join(new Location(world, 0, 64, 0));
+        tracker.tick();
+        sink.clear();
+
+        tracker.untrack(model);
+        assertOperations(sink.getOperations(), Type.DESTROY, player, getEntityIds());
+        assertEquals(0, tracker.getTrackedModels());
+        assertTrue(model.getViewers().isEmpty());
+
+        sink.clear();
+        tracker.tick();
+        tracker.untrack(model);
+        assertTrue(sink.getOperations().isEmpty());
+    }
+}